@@ -0,0 +1,16 @@
+package com.oktech.boasaude.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuração de tarefas agendadas da aplicação.
+ * Habilita o suporte a métodos anotados com @Scheduled.
+ * 
+ * @author Arlindo Neto
+ */
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+    
+}
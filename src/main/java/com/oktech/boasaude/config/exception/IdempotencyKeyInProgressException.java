@@ -0,0 +1,20 @@
+package com.oktech.boasaude.config.exception;
+
+/**
+ * Lançada quando outra requisição com a mesma Idempotency-Key ainda está em
+ * processamento e não terminou dentro do tempo de espera. É convertida em 409
+ * com o cabeçalho Retry-After.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public IdempotencyKeyInProgressException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
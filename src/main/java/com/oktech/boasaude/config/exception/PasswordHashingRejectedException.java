@@ -0,0 +1,19 @@
+package com.oktech.boasaude.config.exception;
+
+/**
+ * Lançada quando o executor de hashing de senhas está saturado (fila cheia ou
+ * tempo de espera esgotado). É convertida em 503 com o cabeçalho Retry-After.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,52 @@
+package com.oktech.boasaude.config.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Delega ao BCrypt com o custo calibrado para o ambiente e sinaliza, via
+ * {@link #upgradeEncoding(String)}, hashes armazenados com custo menor.
+ * O DaoAuthenticationProvider usa esse sinal para regravar a senha no próximo
+ * login bem-sucedido através do UserDetailsPasswordService.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Só sobe o custo. Cada instância calibra o seu, então instâncias em
+     * hardware diferente podem ter custos diferentes; regravar nos dois
+     * sentidos faria um usuário alternando entre elas pagar um segundo BCrypt
+     * e um UPDATE a cada login. Um hash mais caro que o custo local continua
+     * válido e fica como está.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = BCryptCostCalibrator.costOf(encodedPassword);
+        return cost > 0 && cost < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+}
@@ -0,0 +1,76 @@
+package com.oktech.boasaude.config.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Escolhe, na inicialização, o custo do BCrypt mais próximo de um orçamento
+ * de latência por hash, medido no hardware em que a aplicação está rodando.
+ * Cada incremento de custo dobra o tempo do hash, então basta medir um custo
+ * de referência barato e extrapolar.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public final class BCryptCostCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    private static final int REFERENCE_COST = 8;
+
+    private static final int SAMPLES = 5;
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * Calcula o custo cujo tempo estimado mais se aproxima do orçamento.
+     *
+     * @param targetMillis Latência desejada por hash, em milissegundos.
+     * @param minCost      Custo mínimo aceito (piso de segurança).
+     * @param maxCost      Custo máximo aceito.
+     * @return O custo calibrado, entre minCost e maxCost.
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        String salt = BCrypt.gensalt(REFERENCE_COST);
+        BCrypt.hashpw("calibration", salt); // aquecimento
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double referenceMillis = Math.max(best / 1_000_000.0, 0.001);
+        int cost = (int) Math.round(REFERENCE_COST + Math.log(targetMillis / referenceMillis) / Math.log(2));
+        int calibrated = Math.max(minCost, Math.min(maxCost, cost));
+
+        logger.info("BCrypt calibrated: cost {} ({} ms at cost {}, target {} ms, estimated {} ms)",
+                calibrated, String.format("%.2f", referenceMillis), REFERENCE_COST, targetMillis,
+                Math.round(referenceMillis * Math.pow(2, calibrated - REFERENCE_COST)));
+        return calibrated;
+    }
+
+    /**
+     * Extrai o custo de um hash BCrypt ($2a$10$...).
+     *
+     * @param encodedPassword Hash armazenado.
+     * @return O custo, ou -1 se o valor não for um hash BCrypt.
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int separator = encodedPassword.indexOf('$', 1);
+        if (separator < 0 || encodedPassword.length() < separator + 3) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(separator + 1, separator + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
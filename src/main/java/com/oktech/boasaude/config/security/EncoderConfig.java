@@ -1,15 +1,35 @@
 package com.oktech.boasaude.config.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class EncoderConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.timeout-ms:5000}") long timeoutMillis,
+            @Value("${security.password-hashing.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${security.password-hashing.bcrypt.strength:0}") int strength,
+            @Value("${security.password-hashing.bcrypt.target-ms:150}") long targetMillis,
+            @Value("${security.password-hashing.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.password-hashing.bcrypt.max-strength:16}") int maxStrength) {
+        // Custo fixo quando configurado; senão, calibrado para o orçamento de latência
+        int cost = strength > 0 ? strength : BCryptCostCalibrator.calibrate(targetMillis, minStrength, maxStrength);
+        Gauge.builder("security.password.hashing.bcrypt.strength", () -> cost)
+                .description("BCrypt cost factor used for new hashes")
+                .register(meterRegistry);
+
+        // Por padrão, uma thread de hashing por CPU disponível
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new AdaptiveBCryptPasswordEncoder(cost), poolSize, queueCapacity,
+                timeoutMillis, retryAfterSeconds, meterRegistry);
     }
 }
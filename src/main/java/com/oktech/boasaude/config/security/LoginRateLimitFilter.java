@@ -0,0 +1,212 @@
+package com.oktech.boasaude.config.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Aplica o {@link LoginRateLimiter} em POST /v1/auth/login e
+ * /v1/auth/register antes de qualquer consulta ao banco ou hashing de senha.
+ * O corpo é lido apenas para extrair o email e depois reapresentado ao
+ * controller sem alterações.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimitFilter.class);
+
+    private static final String LOGIN_PATH = "/v1/auth/login";
+
+    private static final String REGISTER_PATH = "/v1/auth/register";
+
+    /**
+     * Corpos de login e registro são pequenos; acima disso o email não é lido e
+     * vale apenas o limite por IP.
+     */
+    private static final int MAX_INSPECTED_BODY = 8 * 1024;
+
+    private final LoginRateLimiter rateLimiter;
+
+    private final ObjectMapper objectMapper;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || endpointOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        byte[] head = request.getInputStream().readNBytes(MAX_INSPECTED_BODY + 1);
+        String email = head.length <= MAX_INSPECTED_BODY ? extractEmail(head) : null;
+
+        long retryAfter = rateLimiter.tryAcquire(endpointOf(request), request.getRemoteAddr(), email);
+        if (retryAfter > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Muitas tentativas, tente novamente mais tarde");
+            return;
+        }
+
+        filterChain.doFilter(new ReplayedBodyRequest(request, head, head.length <= MAX_INSPECTED_BODY), response);
+    }
+
+    private String endpointOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return switch (path) {
+            case LOGIN_PATH -> LoginRateLimiter.LOGIN;
+            case REGISTER_PATH -> LoginRateLimiter.REGISTER;
+            default -> null;
+        };
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() && !email.asText().isBlank() ? email.asText() : null;
+        } catch (IOException e) {
+            // Corpo inválido: o controller devolve 400, aqui vale só o limite por IP
+            logger.debug("Could not read email from auth request body");
+            return null;
+        }
+    }
+
+    /**
+     * Reapresenta os bytes já lidos seguidos do restante do corpo original.
+     */
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream inputStream;
+
+        /**
+         * @param complete true se head já é o corpo inteiro.
+         */
+        ReplayedBodyRequest(HttpServletRequest request, byte[] head, boolean complete) throws IOException {
+            super(request);
+            this.inputStream = new ReplayedInputStream(head, request.getInputStream(), complete);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(inputStream,
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Lê primeiro os bytes em memória e depois o stream original. Na leitura
+     * assíncrona, se o corpo inteiro já está em memória o listener é chamado
+     * aqui mesmo; senão, os eventos do stream original são repassados a ele.
+     */
+    private static final class ReplayedInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream head;
+
+        private final ServletInputStream rest;
+
+        private boolean restFinished;
+
+        ReplayedInputStream(byte[] head, ServletInputStream rest, boolean complete) {
+            this.head = new ByteArrayInputStream(head);
+            this.rest = rest;
+            this.restFinished = complete;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (head.available() > 0) {
+                return head.read();
+            }
+            if (restFinished) {
+                return -1;
+            }
+            int read = rest.read();
+            restFinished = read < 0;
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (head.available() > 0) {
+                return head.read(buffer, offset, length);
+            }
+            if (restFinished) {
+                return -1;
+            }
+            int read = rest.read(buffer, offset, length);
+            restFinished = read < 0;
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && (restFinished || rest.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || restFinished || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (restFinished || rest.isFinished()) {
+                try {
+                    if (head.available() > 0) {
+                        readListener.onDataAvailable();
+                    }
+                    readListener.onAllDataRead();
+                } catch (IOException | RuntimeException e) {
+                    readListener.onError(e);
+                }
+                return;
+            }
+            rest.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.oktech.boasaude.config.security;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limites de tentativas para os endpoints de login e registro, por IP do
+ * cliente e por email. Cada endpoint tem seus próprios limites, configurados
+ * em security.rate-limit.*.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    public static final String LOGIN = "login";
+
+    public static final String REGISTER = "register";
+
+    private final Map<String, EndpointLimits> endpoints;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+            @Value("${security.rate-limit.stripes:64}") int stripes,
+            @Value("${security.rate-limit.login.ip.capacity:20}") long loginIpCapacity,
+            @Value("${security.rate-limit.login.ip.refill-per-minute:20}") long loginIpRefill,
+            @Value("${security.rate-limit.login.email.capacity:5}") long loginEmailCapacity,
+            @Value("${security.rate-limit.login.email.refill-per-minute:5}") long loginEmailRefill,
+            @Value("${security.rate-limit.register.ip.capacity:5}") long registerIpCapacity,
+            @Value("${security.rate-limit.register.ip.refill-per-minute:5}") long registerIpRefill,
+            @Value("${security.rate-limit.register.email.capacity:3}") long registerEmailCapacity,
+            @Value("${security.rate-limit.register.email.refill-per-minute:1}") long registerEmailRefill) {
+        this.endpoints = Map.of(
+                LOGIN, new EndpointLimits(LOGIN,
+                        new TokenBucketLimiter(loginIpCapacity, loginIpRefill, stripes),
+                        new TokenBucketLimiter(loginEmailCapacity, loginEmailRefill, stripes),
+                        meterRegistry),
+                REGISTER, new EndpointLimits(REGISTER,
+                        new TokenBucketLimiter(registerIpCapacity, registerIpRefill, stripes),
+                        new TokenBucketLimiter(registerEmailCapacity, registerEmailRefill, stripes),
+                        meterRegistry));
+    }
+
+    /**
+     * Consome uma tentativa do IP e, se informado, do email.
+     *
+     * @param endpoint {@link #LOGIN} ou {@link #REGISTER}.
+     * @param clientIp IP do cliente.
+     * @param email    Email do corpo da requisição (pode ser nulo).
+     * @return 0 se permitido; senão, os segundos sugeridos para o Retry-After.
+     */
+    public long tryAcquire(String endpoint, String clientIp, String email) {
+        EndpointLimits limits = endpoints.get(endpoint);
+        if (limits == null) {
+            throw new IllegalArgumentException("Unknown rate-limited endpoint: " + endpoint);
+        }
+
+        if (!limits.byIp.tryAcquire(clientIp)) {
+            limits.rejectedByIp.increment();
+            logger.warn("Rate limit exceeded on {} for IP {}", endpoint, clientIp);
+            return limits.byIp.retryAfterSeconds();
+        }
+        if (email != null && !limits.byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT))) {
+            limits.rejectedByEmail.increment();
+            logger.warn("Rate limit exceeded on {} for email {}", endpoint, email);
+            return limits.byEmail.retryAfterSeconds();
+        }
+        limits.allowed.increment();
+        return 0;
+    }
+
+    /**
+     * Descarta periodicamente os buckets ociosos, que já estariam cheios.
+     */
+    @Scheduled(fixedDelayString = "${security.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        endpoints.values().forEach(limits -> {
+            int evicted = limits.byIp.evictIdle() + limits.byEmail.evictIdle();
+            logger.debug("Rate limiter {}: {} idle buckets evicted", limits.name, evicted);
+        });
+    }
+
+    private static final class EndpointLimits {
+
+        private final String name;
+        private final TokenBucketLimiter byIp;
+        private final TokenBucketLimiter byEmail;
+        private final Counter allowed;
+        private final Counter rejectedByIp;
+        private final Counter rejectedByEmail;
+
+        EndpointLimits(String name, TokenBucketLimiter byIp, TokenBucketLimiter byEmail,
+                MeterRegistry meterRegistry) {
+            this.name = name;
+            this.byIp = byIp;
+            this.byEmail = byEmail;
+            this.allowed = Counter.builder("security.rate-limit.allowed")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            this.rejectedByIp = rejected(name, "ip", meterRegistry);
+            this.rejectedByEmail = rejected(name, "email", meterRegistry);
+            buckets(name, "ip", byIp, meterRegistry);
+            buckets(name, "email", byEmail, meterRegistry);
+        }
+
+        private static Counter rejected(String endpoint, String key, MeterRegistry meterRegistry) {
+            return Counter.builder("security.rate-limit.rejected")
+                    .tag("endpoint", endpoint)
+                    .tag("key", key)
+                    .description("Attempts rejected before reaching the authentication manager")
+                    .register(meterRegistry);
+        }
+
+        private static void buckets(String endpoint, String key, TokenBucketLimiter limiter,
+                MeterRegistry meterRegistry) {
+            Gauge.builder("security.rate-limit.buckets", limiter, TokenBucketLimiter::size)
+                    .tag("endpoint", endpoint)
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.oktech.boasaude.config.security;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,36 +15,62 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfiguration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oktech.boasaude.service.TokenService;
-import com.oktech.boasaude.service.UserService;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private final UserService userService;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
     private final TokenService tokenService;
+    private final boolean statelessAuth;
+    private final LoginRateLimiter loginRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean rateLimitEnabled;
 
-    public SecurityConfig(UserService userService, TokenService tokenService) {
-        this.userService = userService;
+    public SecurityConfig(UserPrincipalCache principalCache, TokenRevocationList revocationList,
+            TokenService tokenService, @Value("${security.stateless-auth.enabled:false}") boolean statelessAuth,
+            LoginRateLimiter loginRateLimiter, ObjectMapper objectMapper,
+            @Value("${security.rate-limit.enabled:true}") boolean rateLimitEnabled) {
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
         this.tokenService = tokenService;
+        this.statelessAuth = statelessAuth;
+        this.loginRateLimiter = loginRateLimiter;
+        this.objectMapper = objectMapper;
+        this.rateLimitEnabled = rateLimitEnabled;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        UserAuthenticationFilter filter = new UserAuthenticationFilter(tokenService, userService);
+        UserAuthenticationFilter filter = new UserAuthenticationFilter(tokenService, principalCache,
+                revocationList, statelessAuth);
 
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Habilita CORS no Spring Security
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/v1/auth/**", "/actuator/**", "/v3/api-docs/**", "/swagger-ui.html",
-                                "/swagger-ui/**", "v1/products/get/**", "v1/shops/all", "v1/shops/{shopId}/products")
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        // Métricas expõem dados de uso e de carga; só administradores
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        .requestMatchers("/v1/auth/**", "/v3/api-docs/**", "/swagger-ui.html",
+                                "/swagger-ui/**", "v1/products/get/**", "/v1/products/search", "/v1/products/cursor",
+                                "/v1/products/facets", "/v1/products/filter", "/v1/products/query",
+                                "v1/shops/all", "/v1/shops/all/cursor", "v1/shops/{shopId}/products",
+                                "/v1/shops/{shopId}/products/cursor")
                         .permitAll()
                         .anyRequest()
                         .authenticated())
                 .addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class);
 
+        if (rateLimitEnabled) {
+            // Tentativas acima do limite são recusadas antes de chegar ao AuthenticationManager
+            http.addFilterBefore(new LoginRateLimitFilter(loginRateLimiter, objectMapper),
+                    UserAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
@@ -58,8 +85,9 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(List.of("*")); // Em prod, restrinja
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin"));
-        configuration.setExposedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin", "Idempotency-Key",
+                "If-Match", "If-None-Match"));
+        configuration.setExposedHeaders(List.of("Authorization", "Content-Type", "Idempotent-Replayed", "ETag"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,151 @@
+package com.oktech.boasaude.config.security;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conjunto de token buckets em memória, um por chave (email ou IP).
+ * Os buckets ficam distribuídos em stripes, cada uma com o próprio lock e
+ * HashMap, para que chaves diferentes raramente disputem o mesmo monitor.
+ * Cada bucket guarda só dois primitivos; a recarga é calculada de forma
+ * preguiçosa a cada tentativa, sem threads de reposição.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public class TokenBucketLimiter {
+
+    private final long capacity;
+
+    private final double tokensPerNano;
+
+    /**
+     * Tempo para um bucket vazio voltar a ficar cheio. Um bucket cheio e ocioso
+     * equivale a um bucket inexistente, então pode ser descartado.
+     */
+    private final long fullRefillNanos;
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    public TokenBucketLimiter(long capacity, long refillPerMinute, int stripeCount) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerMinute must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.fullRefillNanos = (long) Math.ceil(capacity / tokensPerNano);
+
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Consome um token da chave, se houver.
+     *
+     * @param key Chave limitada (email normalizado ou IP).
+     * @return true se a tentativa está dentro do limite.
+     */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    boolean tryAcquire(String key, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.refill(now, capacity, tokensPerNano);
+            }
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Segundos até o próximo token ficar disponível para um bucket vazio.
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(1.0 / tokensPerNano / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * Remove os buckets que já teriam se recarregado por completo.
+     *
+     * @return Número de buckets removidos.
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    int evictIdle(long now) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now - iterator.next().lastRefillNanos >= fullRefillNanos) {
+                        iterator.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Quantidade de buckets ativos (leitura aproximada, para métricas).
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        Bucket(long capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+        }
+
+        void refill(long now, long capacity, double tokensPerNano) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.oktech.boasaude.config.security;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lista de negação em memória para tokens revogados (por jti) e para os
+ * tokens já emitidos a um usuário (conta desativada ou papel rebaixado).
+ * A consulta passa primeiro por um filtro de Bloom, que responde "não revogado"
+ * sem alocação na grande maioria das requisições. Um positivo do filtro é
+ * confirmado no mapa exato, evitando rejeitar tokens por falso positivo.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String USER_PREFIX = "user:";
+
+    private final int expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    /**
+     * Maior tempo de vida possível de um token (o do refresh token).
+     */
+    private final long maxTokenLifetimeSeconds;
+
+    /**
+     * Entradas revogadas e o instante a partir do qual podem ser descartadas.
+     */
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    public TokenRevocationList(
+            @Value("${security.revocation.expected-insertions:100000}") int expectedInsertions,
+            @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${jwt.refresh-token-ttl-seconds:604800}") long maxTokenLifetimeSeconds) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxTokenLifetimeSeconds = maxTokenLifetimeSeconds;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Revoga um token específico até a sua expiração. A verificação e a
+     * revogação são atômicas: entre chamadas simultâneas com o mesmo jti, só
+     * uma recebe true, o que permite usar o retorno para consumir um refresh
+     * token uma única vez.
+     *
+     * @param tokenId   Claim jti do token.
+     * @param expiresAt Expiração do token.
+     * @return true se esta chamada revogou o token; false se ele já estava
+     *         revogado ou não tem jti.
+     */
+    public synchronized boolean revokeToken(String tokenId, Instant expiresAt) {
+        if (tokenId == null || contains(tokenId)) {
+            return false;
+        }
+        add(tokenId, expiresAt);
+        return true;
+    }
+
+    /**
+     * Revoga todos os tokens já emitidos para um usuário, até que o mais longo
+     * deles tenha expirado. Tokens emitidos depois (um novo login, com os
+     * claims atuais) continuam valendo.
+     *
+     * @param userId ID do usuário desativado ou rebaixado.
+     */
+    public void revokeUser(UUID userId) {
+        add(USER_PREFIX + userId, Instant.now().plusSeconds(maxTokenLifetimeSeconds));
+    }
+
+    /**
+     * Verifica se o token ou o usuário dono do token foram revogados.
+     *
+     * @param tokenId  Claim jti do token (pode ser nulo em tokens antigos).
+     * @param userId   ID do usuário do token.
+     * @param issuedAt Claim iat do token; tokens sem ele contam como emitidos
+     *                 antes de qualquer revogação do usuário.
+     * @return true se a requisição deve ser rejeitada.
+     */
+    public boolean isRevoked(String tokenId, UUID userId, Instant issuedAt) {
+        if (tokenId != null && contains(tokenId)) {
+            return true;
+        }
+        Instant expiresAt = userId != null ? find(USER_PREFIX + userId) : null;
+        if (expiresAt == null) {
+            return false;
+        }
+        // A entrada do usuário expira um tempo de vida de token depois da
+        // revogação; o iat tem precisão de segundos, então o próprio segundo
+        // da revogação também é rejeitado
+        Instant revokedAt = expiresAt.minusSeconds(maxTokenLifetimeSeconds).truncatedTo(ChronoUnit.SECONDS);
+        return issuedAt == null || !issuedAt.isAfter(revokedAt);
+    }
+
+    /**
+     * Remove as entradas já expiradas e reconstrói o filtro de Bloom, que não
+     * suporta remoção.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.purge-interval-ms:600000}")
+    public synchronized void purgeExpired() {
+        Instant now = Instant.now();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        this.bloomFilter = rebuilt;
+        logger.debug("Revocation list purged: {} -> {} entries", before, revoked.size());
+    }
+
+    private synchronized void add(String key, Instant expiresAt) {
+        revoked.put(key, expiresAt);
+        bloomFilter.put(key);
+    }
+
+    private boolean contains(String key) {
+        return find(key) != null;
+    }
+
+    /**
+     * @return A expiração da entrada, ou null se a chave não está revogada.
+     */
+    private Instant find(String key) {
+        if (!bloomFilter.mightContain(key)) {
+            return null;
+        }
+        Instant expiresAt = revoked.get(key);
+        return expiresAt != null && expiresAt.isAfter(Instant.now()) ? expiresAt : null;
+    }
+
+    /**
+     * Filtro de Bloom com bits em AtomicLongArray e double hashing sobre um
+     * hash de 64 bits da chave.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        void put(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a de 64 bits seguido de um finalizador splitmix64
+        private static long hash(String key) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package com.oktech.boasaude.config.security;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.Collection;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.oktech.boasaude.service.TokenService;
-import com.oktech.boasaude.service.UserService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,13 +22,23 @@ import jakarta.servlet.http.HttpServletResponse;
 public class UserAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
-    private final UserService userService;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
+
+    /**
+     * No modo stateless o principal é montado apenas com os claims do token,
+     * sem consultar a tabela users.
+     */
+    private final boolean statelessAuth;
 
     private static final Logger logger = LoggerFactory.getLogger(UserAuthenticationFilter.class);
 
-    public UserAuthenticationFilter(TokenService tokenService, UserService userService) {
+    public UserAuthenticationFilter(TokenService tokenService, UserPrincipalCache principalCache,
+            TokenRevocationList revocationList, boolean statelessAuth) {
         this.tokenService = tokenService;
-        this.userService = userService;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.statelessAuth = statelessAuth;
     }
 
     @Override
@@ -40,25 +51,44 @@ public class UserAuthenticationFilter extends OncePerRequestFilter {
 
         if (tokenJWT != null) {
             try {
-                UUID userId = tokenService.getUserIdFromToken(tokenJWT);
+                DecodedJWT decodedJWT = tokenService.getDecodedToken(tokenJWT);
+                var claims = decodedJWT != null && !tokenService.isRefreshToken(decodedJWT)
+                        ? tokenService.getPrincipalFromToken(decodedJWT)
+                        : null;
                 // logger.info("Token JWT recuperado: {}", tokenJWT); // Removed to avoid
                 // logging sensitive token information
-                if (userId == null) {
+                if (claims == null) {
                     logger.warn("Token inválido ou expirado (userId nulo)");
                     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token inválido ou expirado (userId nulo)");
                     return;
                 }
 
-                var user = userService.getUserById(userId);
-                logger.debug("User retrieved: {}", user != null ? user.getUsername() : "null");
-                if (user == null) {
-                    logger.warn("Usuário não encontrado com ID: {}", userId);
+                if (revocationList.isRevoked(decodedJWT.getId(), claims.id(), decodedJWT.getIssuedAtAsInstant())) {
+                    logger.warn("Token revogado para o usuário: {}", claims.id());
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revogado");
+                    return;
+                }
+
+                // Tokens sem claims tipados (emitidos antes do modo stateless) caem no cache
+                boolean fromClaims = statelessAuth && claims.role() != null;
+                var principal = fromClaims ? claims : principalCache.get(claims.id());
+                if (principal == null) {
+                    logger.warn("Usuário não encontrado com ID: {}", claims.id());
                     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuário não encontrado");
                     return;
                 }
 
+                var user = principal.toUser();
+
+                Collection<? extends GrantedAuthority> authorities = fromClaims
+                        ? tokenService.getAuthoritiesFromToken(decodedJWT)
+                        : user.getAuthorities();
+                if (authorities.isEmpty()) {
+                    authorities = user.getAuthorities();
+                }
+
                 var authentication = new UsernamePasswordAuthenticationToken(
-                        user, null, user.getAuthorities());
+                        user, null, authorities);
                 logger.debug("Authenticated user: {}", user.getUsername());
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -0,0 +1,60 @@
+package com.oktech.boasaude.config.security;
+
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+
+/**
+ * Representação imutável e enxuta do usuário autenticado.
+ * Guarda apenas os dados necessários para autorização, sem o hash da senha,
+ * e pode ser mantida em cache entre requisições ou montada a partir dos
+ * claims do token no modo stateless (shopId só é conhecido nesse modo).
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public record UserPrincipal(
+        UUID id,
+        String name,
+        String email,
+        String cpf,
+        UserRole role,
+        boolean active,
+        UUID shopId) {
+
+    /**
+     * Cria o principal a partir da entidade User.
+     *
+     * @param user Usuário carregado do banco.
+     * @return O principal correspondente.
+     */
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getCpf(),
+                user.getRole(),
+                user.isActive(),
+                user.getShopId());
+    }
+
+    /**
+     * Cria uma instância destacada (detached) de User para o contexto de
+     * segurança da requisição. A senha nunca é preenchida.
+     *
+     * @return Nova instância de User com os dados do principal.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setCpf(cpf);
+        user.setRole(role);
+        user.setActive(active);
+        user.setShopId(shopId);
+        return user;
+    }
+}
@@ -0,0 +1,76 @@
+package com.oktech.boasaude.config.security;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oktech.boasaude.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache limitado e com TTL dos principais autenticados, indexado pelo ID do
+ * usuário. Evita um SELECT na tabela users a cada requisição autenticada.
+ * As métricas (hit, miss, eviction) ficam disponíveis em
+ * /actuator/metrics/cache.gets com a tag cache=userPrincipals.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+@Component
+public class UserPrincipalCache {
+
+    public static final String CACHE_NAME = "userPrincipals";
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    private final UserRepository userRepository;
+
+    private final Cache<UUID, UserPrincipal> cache;
+
+    public UserPrincipalCache(UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Obtém o principal do usuário, consultando o banco apenas em caso de miss.
+     * Usuários inexistentes não são armazenados em cache.
+     *
+     * @param userId ID do usuário.
+     * @return O principal ou null se o usuário não existir.
+     */
+    public UserPrincipal get(UUID userId) {
+        return cache.get(userId, id -> {
+            logger.debug("Principal cache miss for user ID: {}", id);
+            return userRepository.findById(id).map(UserPrincipal::from).orElse(null);
+        });
+    }
+
+    /**
+     * Remove o principal do cache. Deve ser chamado sempre que a conta for
+     * alterada (papel, dados cadastrais ou desativação).
+     *
+     * @param userId ID do usuário alterado.
+     */
+    public void invalidate(UUID userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+}
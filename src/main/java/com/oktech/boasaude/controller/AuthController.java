@@ -3,8 +3,10 @@ package com.oktech.boasaude.controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.oktech.boasaude.config.exception.PasswordHashingRejectedException;
 import com.oktech.boasaude.dto.CreateUserDto;
 import com.oktech.boasaude.dto.LoginUserDto;
+import com.oktech.boasaude.dto.RefreshTokenDto;
 import com.oktech.boasaude.dto.TokenResponse;
 import com.oktech.boasaude.service.TokenService;
 import com.oktech.boasaude.service.UserService;
@@ -70,6 +72,8 @@ public class AuthController {
 
             logger.info("User registered successfully: {}", createUserDto.email());
             return ResponseEntity.ok("User registered successfully");
+        } catch (PasswordHashingRejectedException ex) {
+            throw ex; // Tratada no GlobalExceptionHandler (503 + Retry-After)
         } catch (Exception ex) {
             logger.error("Error registering user: {}", createUserDto.email(), ex);
             return ResponseEntity.status(500).body("Error registering user");
@@ -85,11 +89,27 @@ public class AuthController {
 
             var authentication = manager.authenticate(authenticationToken);
 
-            String token = tokenService.generateToken(authentication.getName());
-            return ResponseEntity.ok(new TokenResponse(token));
+            return ResponseEntity.ok(tokenService.issueTokens(authentication.getName()));
         } catch (AuthenticationException ex) {
             logger.error("Authentication failed for user: {}", loginUserDto.email(), ex);
             return ResponseEntity.status(401).body(new TokenResponse("Invalid credentials"));
         }
     }
+
+    /**
+     * Endpoint para renovar o token de acesso a partir de um refresh token.
+     * O refresh token utilizado é revogado e um novo par é devolvido.
+     * 
+     * @param refreshTokenDto DTO com o refresh token.
+     * @return ResponseEntity com o novo token de acesso e o novo refresh token.
+     */
+    @PostMapping("refresh")
+    public ResponseEntity<TokenResponse> refreshToken(@RequestBody @Valid RefreshTokenDto refreshTokenDto) {
+        try {
+            return ResponseEntity.ok(tokenService.refreshTokens(refreshTokenDto.refreshToken()));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Token refresh failed: {}", ex.getMessage());
+            return ResponseEntity.status(401).body(new TokenResponse("Invalid refresh token"));
+        }
+    }
 }
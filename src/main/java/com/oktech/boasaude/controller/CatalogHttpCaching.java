@@ -0,0 +1,113 @@
+package com.oktech.boasaude.controller;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import com.oktech.boasaude.entity.Product;
+
+/**
+ * GET condicional para os endpoints públicos do catálogo.
+ * O ETag é calculado a partir de uma versão barata de obter (id:version do
+ * produto em cache ou a versão do catálogo, igual em todas as instâncias), e
+ * o corpo só é montado quando o If-None-Match do cliente não confere. As respostas levam Cache-Control
+ * público com stale-while-revalidate para proxies de cache.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class CatalogHttpCaching {
+
+    private final CacheControl cacheControl;
+
+    public CatalogHttpCaching(
+            @Value("${catalog.cache-control.max-age-seconds:30}") long maxAgeSeconds,
+            @Value("${catalog.cache-control.stale-while-revalidate-seconds:60}") long staleWhileRevalidateSeconds) {
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .cachePublic()
+                .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds));
+    }
+
+    /**
+     * Responde 304 se o ETag confere; senão, monta o corpo e responde 200.
+     *
+     * @param request WebRequest atual (If-None-Match).
+     * @param tag     Valor do ETag, sem aspas; deve mudar junto com o corpo.
+     * @param body    Monta o corpo; só é chamado quando necessário.
+     * @return A resposta com ETag e Cache-Control.
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, String tag, Supplier<T> body) {
+        String etag = "\"" + tag + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+
+    /**
+     * Tag do produto: id:version. A versão muda a cada edição, reserva de
+     * estoque ou alteração em lote.
+     */
+    public static String productTag(Product product) {
+        return product.getId() + ":" + product.getVersion();
+    }
+
+    /**
+     * Lê a versão esperada de um If-Match com a tag do produto.
+     *
+     * @param productId Produto sendo alterado.
+     * @param ifMatch   Valor do cabeçalho; pode ser nulo.
+     * @return A versão, ou nulo se o cabeçalho não foi enviado.
+     * @throws IllegalArgumentException se o valor não for um ETag deste produto.
+     */
+    public static Long versionFromIfMatch(UUID productId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        String prefix = productId + ":";
+        if (tag.startsWith(prefix)) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                // cai na mensagem abaixo
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be the ETag returned for product " + productId + ".");
+    }
+
+    /**
+     * Tag de uma página de listagem: a versão do catálogo seguida da página,
+     * do tamanho e da ordenação, escritos por extenso (e não por hash) para
+     * que duas páginas diferentes nunca tenham o mesmo ETag. As propriedades
+     * de ordenação vêm do cliente e são codificadas para caber no cabeçalho.
+     */
+    public static String listingTag(String version, Pageable pageable) {
+        StringBuilder tag = new StringBuilder(version)
+                .append("-p").append(pageable.getPageNumber())
+                .append("-s").append(pageable.getPageSize());
+        for (Sort.Order order : pageable.getSort()) {
+            tag.append('-').append(URLEncoder.encode(order.getProperty(), StandardCharsets.UTF_8))
+                    .append('.').append(order.getDirection().isAscending() ? "asc" : "desc");
+        }
+        return tag.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.oktech.boasaude.controller;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,7 +9,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import org.springframework.security.core.Authentication;
@@ -28,8 +31,14 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 
+import com.oktech.boasaude.dto.BulkOrderStatusUpdateDto;
 import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.IdempotentResponse;
 import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.dto.OrderStatusUpdateResultDto;
+import com.oktech.boasaude.dto.OrderSummaryDto;
+import com.oktech.boasaude.dto.SliceResponse;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.User;
@@ -52,17 +61,36 @@ public class OrderController {
     private final OrderService orderService;
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
     
     public OrderController(OrderService orderService) {
         this.orderService = orderService;
     }
 
+    /**
+     * Cria um pedido. Com o cabeçalho Idempotency-Key, repetições da mesma
+     * requisição (por exemplo, após um timeout no cliente) devolvem o pedido
+     * já criado, com Idempotent-Replayed: true, em vez de criar outro.
+     */
     @PostMapping("/create")
     public ResponseEntity<OrderResponseDto> createOrder(
         @Valid @RequestBody @NotEmpty List<CreateOrderItemDto> createOrderDto, 
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
         Authentication authentication) {
         
         User currentUser = (User) authentication.getPrincipal();
+
+        if (idempotencyKey != null) {
+            IdempotentResponse<OrderResponseDto> response = orderService.createOrder(currentUser, createOrderDto,
+                idempotencyKey);
+            logger.info("Order {} for user: {} (replayed: {})", response.body().id(), currentUser.getId(),
+                response.replayed());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(response.replayed()))
+                .body(response.body());
+        }
+
         Order order = orderService.createOrder(currentUser, createOrderDto);
         
         logger.info("Order created successfully for user: {}", currentUser.getId());
@@ -91,6 +119,52 @@ public class OrderController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @GetMapping(params = "withTotal")
+    public ResponseEntity<SliceResponse<OrderResponseDto>> getOrdersSlice(
+        @RequestParam boolean withTotal,
+        @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable,
+        Authentication authentication) {
+
+        User currentUser = (User) authentication.getPrincipal();
+
+        Slice<OrderResponseDto> orders = orderService.getOrdersSliceByUserId(pageable, currentUser)
+            .map(OrderResponseDto::new);
+        Long total = withTotal ? orderService.estimateOrderCountByUserId(currentUser) : null;
+
+        return new ResponseEntity<>(SliceResponse.of(orders, total), HttpStatus.OK);
+    }
+
+    /**
+     * Histórico de pedidos com totais e quantidade de unidades, sem os itens.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<SliceResponse<OrderSummaryDto>> getOrderSummaries(
+        @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable,
+        Authentication authentication) {
+
+        User currentUser = (User) authentication.getPrincipal();
+
+        Slice<OrderSummaryDto> orders = orderService.getOrderSummariesByUserId(pageable, currentUser);
+
+        return new ResponseEntity<>(SliceResponse.of(orders, null), HttpStatus.OK);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<OrderResponseDto>> getOrdersByCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") int size,
+        Authentication authentication) {
+
+        User currentUser = (User) authentication.getPrincipal();
+
+        CursorPage<OrderResponseDto> response = orderService.getOrdersByUserIdAndCursor(cursor, size, currentUser)
+            .map(OrderResponseDto::new);
+
+        logger.info("Retrieved {} orders by cursor for user: {}", response.items().size(), currentUser.getId());
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @PostMapping("/buy/{orderId}/{status}")
     public ResponseEntity<OrderResponseDto> updateOrderStatus(
         @PathVariable UUID orderId, 
@@ -112,4 +186,30 @@ public class OrderController {
         return new ResponseEntity<>(new OrderResponseDto(updatedOrder), HttpStatus.OK);
     }
 
+    /**
+     * Muda o status de vários pedidos da loja de uma vez. Pedidos cuja
+     * mudança não é permitida, que não são da loja ou que mudaram durante a
+     * requisição não impedem os demais: cada um tem seu resultado na resposta.
+     * Pedidos com itens de várias lojas só podem ser alterados por um
+     * administrador.
+     */
+    @PutMapping("/bulk-status/{shopId}")
+    public ResponseEntity<List<OrderStatusUpdateResultDto>> updateShopOrdersStatus(
+        @PathVariable UUID shopId,
+        @Valid @RequestBody BulkOrderStatusUpdateDto bulkOrderStatusUpdateDto,
+        Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User currentUser = (User) authentication.getPrincipal();
+
+        List<OrderStatusUpdateResultDto> results = orderService.updateShopOrdersStatus(shopId,
+            bulkOrderStatusUpdateDto, currentUser);
+
+        logger.info("Bulk status update processed {} orders in shop {}", results.size(), shopId);
+        return ResponseEntity.ok(results);
+    }
+
 }
@@ -1,7 +1,12 @@
 package com.oktech.boasaude.controller;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,11 +14,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.springframework.security.core.Authentication;
 
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import java.util.Map;
@@ -25,10 +36,17 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 
+import com.oktech.boasaude.dto.BulkProductUpdateDto;
+import com.oktech.boasaude.dto.CategoryFacetsDto;
 import com.oktech.boasaude.dto.CreateProductDto;
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.ProductQueryDto;
 import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.dto.SliceResponse;
 import com.oktech.boasaude.entity.Product;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.ProductExportService;
+import com.oktech.boasaude.service.ProductSearchService;
 import com.oktech.boasaude.service.ProductService;
 
 /**
@@ -47,10 +65,24 @@ public class ProductController {
 
     private final ProductService productService;
 
+    private final ProductSearchService productSearchService;
+
+    private final CatalogHttpCaching catalogHttpCaching;
+
+    private final ProductExportService productExportService;
+
+    private final long exportTimeoutMs;
+
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService,
+            CatalogHttpCaching catalogHttpCaching, ProductExportService productExportService,
+            @Value("${products.export.timeout-ms:600000}") long exportTimeoutMs) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.catalogHttpCaching = catalogHttpCaching;
+        this.productExportService = productExportService;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
     
     @PostMapping("/create/{shopId}")
@@ -83,17 +115,127 @@ public class ProductController {
 
     @GetMapping("/get")
     public ResponseEntity<Page<ProductResponseDto>> getAllProducts(
+        @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable,
+        WebRequest request) {
+
+        // If-None-Match com a versão atual do catálogo responde 304 sem consultar o banco
+        return catalogHttpCaching.respond(request,
+            CatalogHttpCaching.listingTag(productService.getCatalogVersion(), pageable), () -> {
+                Page<ProductResponseDto> products = productService.getAllProducts(pageable);
+                logger.info("Products retrieved successfully, count: {}", products.getTotalElements());
+                return products;
+            });
+    }
+
+    /**
+     * Lista os produtos paginados por cursor, do mais recente para o mais antigo.
+     * Use o token next ou previous da resposta para navegar.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ProductResponseDto>> getProductsByCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<ProductResponseDto> products = productService.getProductsByCursor(cursor, size)
+            .map(ProductResponseDto::new);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Exporta todos os produtos em NDJSON (um produto por linha), em
+     * streaming, opcionalmente filtrados por loja e categoria. Substitui a
+     * leitura do catálogo inteiro página a página. O streaming tem timeout
+     * próprio, maior que o das demais requisições assíncronas.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+        @RequestParam(required = false) UUID shopId,
+        @RequestParam(required = false) String category,
+        HttpServletRequest request) {
+
+        // Vale só para esta requisição; a requisição assíncrona começa depois do retorno
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMs);
+        StreamingResponseBody body = output -> productExportService.exportProducts(shopId, category, output);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    /**
+     * Contagem de produtos por categoria, do catálogo inteiro ou de uma loja.
+     * Servida das contagens em memória, sem consulta ao banco.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<CategoryFacetsDto> getCategoryFacets(@RequestParam(required = false) UUID shopId) {
+        return ResponseEntity.ok(productService.getCategoryFacets(shopId));
+    }
+
+    /**
+     * Lista produtos filtrando por categoria, loja e faixa de preço, no
+     * envelope {items, hasNext, next}. Sem filtro de preço, o total vem das
+     * contagens por categoria.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<SliceResponse<ProductResponseDto>> getProductsByFilter(
+        @RequestParam(required = false) String category,
+        @RequestParam(required = false) UUID shopId,
+        @RequestParam(required = false) Integer minPrice,
+        @RequestParam(required = false) Integer maxPrice,
+        @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable) {
+
+        Slice<ProductResponseDto> products = productService.getProductsByFilter(category, shopId, minPrice,
+            maxPrice, pageable);
+        Long total = minPrice == null && maxPrice == null
+            ? productService.countProductsByCategory(shopId, category)
+            : null;
+        return ResponseEntity.ok(SliceResponse.of(products, total));
+    }
+
+    /**
+     * Consulta com filtros combináveis (nome por prefixo, categoria, loja,
+     * faixa de preço, apenas em estoque), ordenada por price ou createdAt.
+     * Ordenar por preço exige categoria ou inStock=true; outras ordenações
+     * respondem 400.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<SliceResponse<ProductResponseDto>> queryProducts(
+        @ParameterObject ProductQueryDto criteria,
+        @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable) {
+
+        return ResponseEntity.ok(SliceResponse.of(productService.queryProducts(criteria, pageable), null));
+    }
+
+    /**
+     * Busca textual por nome, descrição e categoria, com resultados ordenados
+     * por relevância.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Page<ProductResponseDto>> searchProducts(
+        @RequestParam("q") String query,
         @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable) {
-        
-        Page<Product> productsPage = productService.getAllProducts(pageable);
 
-        Page<ProductResponseDto> products = productsPage.map(ProductResponseDto::new);
-        logger.info("Products retrieved successfully, count: {}", products.getTotalElements());
+        Page<ProductResponseDto> products = productSearchService.search(query, pageable)
+            .map(ProductResponseDto::new);
+        logger.info("Product search returned {} results", products.getTotalElements());
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Variante de /get sem count(*): responde {items, hasNext, next}. Com
+     * withTotal=true inclui um total aproximado.
+     */
+    @GetMapping(value = "/get", params = "withTotal")
+    public ResponseEntity<SliceResponse<ProductResponseDto>> getAllProductsSlice(
+        @RequestParam boolean withTotal,
+        @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable) {
+
+        Slice<ProductResponseDto> products = productService.getAllProductsSlice(pageable);
+        Long total = withTotal ? productService.estimateProductCount() : null;
+        return ResponseEntity.ok(SliceResponse.of(products, total));
+    }
+
     @GetMapping("/get/{id}")
-    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable UUID id) {
+    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable UUID id, WebRequest request) {
         Product product = productService.getProductById(id);
         if (product == null) {
             logger.warn("Product not found with ID: {}", id);
@@ -101,13 +243,22 @@ public class ProductController {
         }
 
         logger.info("Product retrieved successfully with ID: {}", id);
-        return ResponseEntity.ok(new ProductResponseDto(product));
+        // O produto vem do cache; o ETag muda a cada alteração (coluna version)
+        return catalogHttpCaching.respond(request, CatalogHttpCaching.productTag(product),
+            () -> new ProductResponseDto(product));
     }
 
+    /**
+     * Atualiza o produto. Com If-Match (o ETag de GET /get/{id}) a edição só
+     * é aplicada se o produto não mudou desde a leitura; sem ele, o estoque
+     * não pode ser alterado, para que uma tela aberta antes de uma venda não
+     * devolva ao estoque as unidades já reservadas.
+     */
     @PutMapping("/update/{id}")
     public ResponseEntity<ProductResponseDto> updateProduct(
         @PathVariable UUID id, 
         @Valid @RequestBody CreateProductDto createProductDto, 
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         Authentication authentication) {
         try{
             if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
@@ -117,17 +268,92 @@ public class ProductController {
     
             User user = (User) authentication.getPrincipal();
 
-            Product updatedProduct = productService.updateProduct(id, createProductDto, user);
+            Long expectedVersion = CatalogHttpCaching.versionFromIfMatch(id, ifMatch);
+            Product updatedProduct = productService.updateProduct(id, createProductDto, expectedVersion, user);
             
             logger.info("Product updated successfully with ID: {}", updatedProduct.getId());
-            return ResponseEntity.ok(new ProductResponseDto(updatedProduct));
+            return ResponseEntity.ok()
+                .eTag("\"" + CatalogHttpCaching.productTag(updatedProduct) + "\"")
+                .body(new ProductResponseDto(updatedProduct));
 
+        }catch(OptimisticLockingFailureException e) {
+            // O produto mudou (reserva de estoque ou outra edição) depois da leitura
+            logger.warn("Concurrent update on product ID: {}", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }catch(IllegalArgumentException e) {
+            // Erro do lojista (dados inválidos, produto em flash sale): o
+            // GlobalExceptionHandler responde 400 com a mensagem
+            logger.warn("Invalid update for product ID {}: {}", id, e.getMessage());
+            throw e;
         }catch(Exception e) {
             logger.error("Error updating product: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    /**
+     * Altera preço e/ou estoque de vários produtos da loja numa única
+     * requisição. stockDelta soma (ou subtrai) do estoque atual no banco.
+     * @return Quantidade de produtos alterados; IDs de outras lojas, ou cuja
+     *         variação deixaria o estoque negativo, não são contados.
+     */
+    @PutMapping("/bulk-update/{shopId}")
+    public ResponseEntity<Map<String, Integer>> bulkUpdateProducts(
+        @PathVariable UUID shopId,
+        @Valid @RequestBody BulkProductUpdateDto bulkProductUpdateDto,
+        Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User user = (User) authentication.getPrincipal();
+
+        int updated = productService.bulkUpdateProducts(shopId, bulkProductUpdateDto, user);
+
+        logger.info("Bulk update changed {} of {} products in shop {}", updated,
+            bulkProductUpdateDto.items().size(), shopId);
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    /**
+     * Coloca o produto em modo flash sale: as reservas passam a descontar de
+     * contadores em memória, gravados no banco em lotes.
+     * @return Unidades disponíveis na venda.
+     */
+    @PutMapping("/flash-sale/{id}")
+    public ResponseEntity<Map<String, Long>> startFlashSale(@PathVariable UUID id, Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User user = (User) authentication.getPrincipal();
+
+        long available = productService.startFlashSale(id, user);
+
+        logger.info("Flash sale started for product {} with {} units", id, available);
+        return ResponseEntity.ok(Map.of("available", available));
+    }
+
+    /**
+     * Encerra o modo flash sale; o estoque volta a ser controlado no banco.
+     */
+    @DeleteMapping("/flash-sale/{id}")
+    public ResponseEntity<Map<String, String>> endFlashSale(@PathVariable UUID id, Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User user = (User) authentication.getPrincipal();
+
+        productService.endFlashSale(id, user);
+
+        logger.info("Flash sale ended for product {}", id);
+        return ResponseEntity.ok(Map.of("message", "Flash sale ended"));
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Map<String, String>> deleteProduct(@PathVariable UUID id, Authentication authentication) {
         try{
@@ -1,5 +1,7 @@
 package com.oktech.boasaude.controller;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,26 +9,35 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.ProductImportResultDto;
 import com.oktech.boasaude.dto.ProductResponseDto;
 import com.oktech.boasaude.dto.ShopCreateRequestDto;
 import com.oktech.boasaude.dto.ShopResponseDto;
-import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.dto.SliceResponse;
 import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.service.ShopService; 
 import com.oktech.boasaude.service.ProductService;
+import com.oktech.boasaude.service.ProductImportService;
 
 
 import org.springframework.security.core.Authentication;
 
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
@@ -47,13 +58,18 @@ import org.springframework.data.domain.Pageable;
 public class ShopController {
     private final ShopService shopService;
     private final ProductService productService;
+    private final CatalogHttpCaching catalogHttpCaching;
+    private final ProductImportService productImportService;
 
 
     private static final Logger logger = LoggerFactory.getLogger(ShopController.class);
 
-    public ShopController(ShopService shopService, ProductService productService) {
+    public ShopController(ShopService shopService, ProductService productService,
+            CatalogHttpCaching catalogHttpCaching, ProductImportService productImportService) {
         this.shopService = shopService;
         this.productService = productService;
+        this.catalogHttpCaching = catalogHttpCaching;
+        this.productImportService = productImportService;
     }
 
     /**
@@ -62,22 +78,104 @@ public class ShopController {
      * @return ResponseEntity com a lista de lojas paginadas.
      */
     @GetMapping("/all")
-    public ResponseEntity<Page<ShopResponseDto>> ListgetAllShops(Pageable pageable) {
-        
-        Page<ShopResponseDto> shops = shopService.getAllShops(pageable);
-        return ResponseEntity.ok(shops);
+    public ResponseEntity<Page<ShopResponseDto>> ListgetAllShops(Pageable pageable, WebRequest request) {
+
+        return catalogHttpCaching.respond(request,
+                CatalogHttpCaching.listingTag(shopService.getShopsVersion(), pageable),
+                () -> shopService.getAllShops(pageable));
+    }
+
+    /**
+     * Lista as lojas sem count(*), no envelope {items, hasNext, next}.
+     * @param withTotal Inclui um total aproximado quando true.
+     * @param pageable Objeto Pageable para paginação.
+     * @return ResponseEntity com a fatia de lojas.
+     */
+    @GetMapping(value = "/all", params = "withTotal")
+    public ResponseEntity<SliceResponse<ShopResponseDto>> getAllShopsSlice(@RequestParam boolean withTotal,
+            Pageable pageable) {
+
+        Slice<ShopResponseDto> shops = shopService.getAllShopsSlice(pageable);
+        Long total = withTotal ? shopService.estimateShopCount() : null;
+        return ResponseEntity.ok(SliceResponse.of(shops, total));
+    }
+
+    /**
+     * Lista as lojas paginadas por cursor, da mais recente para a mais antiga.
+     * @param cursor Token next ou previous da resposta anterior.
+     * @param size Tamanho da página.
+     * @return ResponseEntity com a página de lojas e os tokens de navegação.
+     */
+    @GetMapping("/all/cursor")
+    public ResponseEntity<CursorPage<ShopResponseDto>> getShopsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(shopService.getShopsByCursor(cursor, size));
     }
 
     @GetMapping("/{shopId}/products")
-    public ResponseEntity<Page<ProductResponseDto>> getProductsByShopId(@PathVariable UUID shopId, Pageable pageable) {
-        
-        logger.info("Fetching products for shop ID: {}", shopId);
+    public ResponseEntity<Page<ProductResponseDto>> getProductsByShopId(@PathVariable UUID shopId, Pageable pageable,
+            WebRequest request) {
+
+        // A versão do catálogo da loja valida o If-None-Match sem executar a listagem
+        return catalogHttpCaching.respond(request,
+                CatalogHttpCaching.listingTag(productService.getShopCatalogVersion(shopId), pageable), () -> {
+                    logger.info("Fetching products for shop ID: {}", shopId);
+
+                    return productService.getProductsByShopId(shopId, pageable);
+                });
+    }
 
-        Page<Product> productsPage = productService.getProductsByShopId(shopId, pageable);
+    @GetMapping(value = "/{shopId}/products", params = "withTotal")
+    public ResponseEntity<SliceResponse<ProductResponseDto>> getProductsSliceByShopId(@PathVariable UUID shopId,
+            @RequestParam boolean withTotal, Pageable pageable) {
 
-        Page<ProductResponseDto> responseDtoPage = productsPage.map(ProductResponseDto::new);
+        logger.info("Fetching products slice for shop ID: {}", shopId);
+
+        Slice<ProductResponseDto> products = productService.getProductsSliceByShopId(shopId, pageable);
+        Long total = withTotal ? productService.estimateProductCountByShopId(shopId) : null;
+        return ResponseEntity.ok(SliceResponse.of(products, total));
+    }
+
+    @GetMapping("/{shopId}/products/cursor")
+    public ResponseEntity<CursorPage<ProductResponseDto>> getProductsByShopIdAndCursor(@PathVariable UUID shopId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        logger.info("Fetching products by cursor for shop ID: {}", shopId);
+
+        return ResponseEntity.ok(productService.getProductsByShopIdAndCursor(shopId, cursor, size)
+                .map(ProductResponseDto::new));
+    }
+
+    /**
+     * Importa produtos para a loja a partir de um arquivo CSV (text/csv, com
+     * cabeçalho) ou NDJSON (application/x-ndjson, um produto por linha).
+     * O corpo é lido em streaming; linhas inválidas não interrompem a
+     * importação e são listadas na resposta com o número da linha.
+     * @param shopId ID da loja.
+     * @param contentType Formato do corpo.
+     * @param body Corpo da requisição, em UTF-8.
+     * @param authentication Objeto Authentication do Spring Security.
+     * @return ResponseEntity com os totais e os erros por linha.
+     */
+    @PostMapping(value = "/{shopId}/products/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ProductImportResultDto> importProducts(@PathVariable UUID shopId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body,
+            Authentication authentication) throws IOException {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = (User) authentication.getPrincipal();
+        ProductImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
 
-        return ResponseEntity.ok(responseDtoPage);
+        logger.info("Importing products ({}) into shop ID: {}", format, shopId);
+        return ResponseEntity.ok(productImportService.importProducts(shopId, body, format, currentUser));
     }
 
     /**
@@ -5,6 +5,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.oktech.boasaude.dto.UserResponseDto;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.UserService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +19,12 @@ public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
+    private final UserService userService;
+
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
     @GetMapping
     public ResponseEntity<UserResponseDto> getUser(Authentication authentication) {
         if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
@@ -27,6 +34,14 @@ public class UserController {
 
         User user = (User) authentication.getPrincipal();
 
+        // No modo stateless o principal vem dos claims do token, que não trazem o CPF
+        if (user.getCpf() == null) {
+            user = userService.getUserById(user.getId());
+            if (user == null) {
+                return ResponseEntity.status(401).build();
+            }
+        }
+
         logger.info("User retrieved successfully with ID: {}", user.getId());
         return ResponseEntity.ok(new UserResponseDto(user));
     }
@@ -0,0 +1,24 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO para mudar o status de vários pedidos de uma loja de uma vez.
+ * @author João Martins
+ * @version 1.0
+ */
+public record BulkOrderStatusUpdateDto(
+    @NotEmpty(message = "Informe ao menos um pedido")
+    @Size(max = 500, message = "No máximo 500 pedidos por requisição")
+    List<@NotNull(message = "O ID do pedido é obrigatório") UUID> orderIds,
+
+    @NotBlank(message = "O status é obrigatório")
+    String status
+) {
+}
@@ -0,0 +1,37 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO para alterar preço e estoque de vários produtos de uma loja de uma vez.
+ * Cada item informa o novo preço, o novo estoque ou uma variação do estoque
+ * (stockDelta); campos nulos não são alterados.
+ * @author João Martins
+ * @version 1.0
+ */
+public record BulkProductUpdateDto(
+    @NotEmpty(message = "Informe ao menos um produto")
+    @Size(max = 1000, message = "No máximo 1000 produtos por requisição")
+    List<@Valid Item> items
+) {
+
+    public record Item(
+        @NotNull(message = "O ID do produto é obrigatório")
+        UUID productId,
+
+        @Positive(message = "O preço do produto não pode ser negativo")
+        Integer price,
+
+        @Positive(message = "A quantidade em estoque não pode ser negativa")
+        Integer stock,
+
+        Integer stockDelta
+    ) {}
+}
@@ -0,0 +1,13 @@
+package com.oktech.boasaude.dto;
+
+import java.util.Map;
+
+/**
+ * Contagem de produtos por categoria, da maior para a menor, e o total de
+ * produtos considerados.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+public record CategoryFacetsDto(long total, Map<String, Long> categories) {
+}
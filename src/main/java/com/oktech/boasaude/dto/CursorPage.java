@@ -0,0 +1,19 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem paginada por cursor.
+ * next e previous são tokens opacos para as páginas seguinte e anterior, ou
+ * nulos quando não há mais itens naquele sentido.
+ * 
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public record CursorPage<T>(List<T> items, boolean hasNext, String next, String previous) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), hasNext, next, previous);
+    }
+}
@@ -0,0 +1,11 @@
+package com.oktech.boasaude.dto;
+
+/**
+ * Resposta de uma operação protegida por Idempotency-Key.
+ *
+ * @param body     Corpo da resposta.
+ * @param replayed true se a resposta foi gravada por uma requisição anterior
+ *                 com a mesma chave e nada foi executado agora.
+ */
+public record IdempotentResponse<T>(T body, boolean replayed) {
+}
@@ -0,0 +1,62 @@
+package com.oktech.boasaude.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Payload dos eventos de pedido gravados na outbox.
+ *
+ * @param orderId        ID do pedido.
+ * @param userId         Comprador.
+ * @param previousStatus Status anterior; nulo na criação.
+ * @param status         Status depois da mudança.
+ * @param totalAmount    Valor total do pedido.
+ * @param itemCount      Quantidade de unidades no pedido.
+ * @param items          Produtos e quantidades; só em order.created.
+ * @param occurredAt     Momento da mudança.
+ */
+public record OrderEventDto(
+    UUID orderId,
+    UUID userId,
+    OrderStatus previousStatus,
+    OrderStatus status,
+    Long totalAmount,
+    Integer itemCount,
+    List<Item> items,
+    LocalDateTime occurredAt
+) {
+
+    public static final String AGGREGATE_TYPE = "Order";
+
+    public static final String CREATED = "order.created";
+
+    public static final String STATUS_CHANGED = "order.status-changed";
+
+    public record Item(UUID productId, Integer quantity, Integer unitPrice) {
+    }
+
+    /**
+     * Evento order.created, com os itens do pedido.
+     */
+    public static OrderEventDto created(Order order) {
+        return new OrderEventDto(order.getId(), order.getUser().getId(), null, order.getStatus(),
+                order.getTotalAmount(), order.getItemCount(),
+                order.getItems().stream()
+                        .map(item -> new Item(item.getProduct().getId(), item.getQuantity(), item.getUnitPrice()))
+                        .toList(),
+                LocalDateTime.now());
+    }
+
+    /**
+     * Evento order.status-changed. Não leva os itens, então pode ser montado
+     * sem carregar o pedido.
+     */
+    public static OrderEventDto statusChanged(UUID orderId, UUID userId, OrderStatus previousStatus,
+            OrderStatus status, Long totalAmount, Integer itemCount, LocalDateTime occurredAt) {
+        return new OrderEventDto(orderId, userId, previousStatus, status, totalAmount, itemCount, null, occurredAt);
+    }
+}
@@ -10,6 +10,7 @@ public record OrderItemResponseDto(
     UUID productId,
     String productName,
     int quantity,
+    int unitPrice,
     BigInteger totalPrice
 ) {
     public OrderItemResponseDto(OrderItem item) {
@@ -18,6 +19,7 @@ public record OrderItemResponseDto(
             item.getProduct().getId(),
             item.getProduct().getName(),
             item.getQuantity(),
+            item.getUnitPrice(),
             item.getTotalPrice()
         );
     }
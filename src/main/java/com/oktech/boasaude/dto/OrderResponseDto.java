@@ -1,5 +1,6 @@
 package com.oktech.boasaude.dto;
 
+import java.math.BigInteger;
 import java.util.List;
 
 import com.oktech.boasaude.entity.Order;
@@ -8,10 +9,13 @@ import com.oktech.boasaude.entity.Order;
 public record OrderResponseDto(
     String id,
     String status,
+    BigInteger totalAmount,
+    int itemCount,
     List<OrderItemResponseDto> items
 ) {
     /**
      * Construtor para criar um ResponseOrderDto a partir de uma lista de ResponseOrderItemDto.
+     * Os totais vêm da linha do pedido, gravados no checkout.
      * @param id O ID do pedido.
      * @param status O status do pedido.
      * @param items A lista de itens do pedido.
@@ -20,6 +24,8 @@ public record OrderResponseDto(
         this(
             order.getId().toString(),
             order.getStatus().name(),
+            order.getTotalPrice(),
+            order.getItemCount(),
             order.getItems().stream().map(OrderItemResponseDto::new).toList()
         );
     }
@@ -0,0 +1,30 @@
+package com.oktech.boasaude.dto;
+
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Resultado da mudança de status de um pedido numa atualização em lote.
+ *
+ * @param orderId ID do pedido.
+ * @param outcome O que aconteceu com o pedido.
+ * @param status  Status do pedido depois da requisição; nulo quando ele não
+ *                foi encontrado ou mudou durante a atualização.
+ */
+public record OrderStatusUpdateResultDto(
+    UUID orderId,
+    Outcome outcome,
+    OrderStatus status
+) {
+
+    public enum Outcome {
+        UPDATED,
+        // O status atual não permite ir para o status pedido
+        INVALID_TRANSITION,
+        // Outra requisição mudou o status entre a leitura e o UPDATE
+        CONFLICT,
+        // Não existe ou tem itens de outra loja
+        NOT_FOUND
+    }
+}
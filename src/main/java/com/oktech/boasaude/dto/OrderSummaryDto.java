@@ -0,0 +1,25 @@
+package com.oktech.boasaude.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Resumo de um pedido para o histórico: só colunas da tabela orders, sem
+ * carregar itens nem produtos.
+ *
+ * @param id          ID do pedido.
+ * @param status      Status do pedido.
+ * @param totalAmount Valor total, com os preços do momento da compra.
+ * @param itemCount   Quantidade de unidades no pedido.
+ * @param createdAt   Data do pedido.
+ */
+public record OrderSummaryDto(
+    UUID id,
+    OrderStatus status,
+    Long totalAmount,
+    Integer itemCount,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,45 @@
+package com.oktech.boasaude.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição de uma página na paginação por cursor: a chave (createdAt, id) do
+ * item de referência e o sentido da navegação. É enviada ao cliente como um
+ * token opaco em Base64 URL-safe.
+ * 
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public record PageCursor(LocalDateTime createdAt, UUID id, boolean backward) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id + SEPARATOR + (backward ? "b" : "f");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um token recebido do cliente.
+     * 
+     * @param token Token gerado por {@link #encode()}.
+     * @return O cursor correspondente.
+     * @throws IllegalArgumentException se o token for inválido.
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !("f".equals(parts[2]) || "b".equals(parts[2]))) {
+                throw new IllegalArgumentException("Invalid page cursor.");
+            }
+            return new PageCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]), "b".equals(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação de produtos: quantas linhas foram gravadas,
+ * quantas foram recusadas e o motivo de cada recusa, pelo número da linha no
+ * arquivo. A lista de erros é limitada; errorsOmitted conta os que ficaram de
+ * fora.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+public record ProductImportResultDto(long imported, long rejected, List<RowError> errors, long errorsOmitted) {
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.oktech.boasaude.dto;
+
+import java.util.UUID;
+
+/**
+ * Filtros da consulta de produtos. Todos são opcionais; name casa pelo
+ * prefixo do nome, sem diferenciar maiúsculas.
+ * @author João Martins
+ * @version 1.0
+ */
+public record ProductQueryDto(
+    String name,
+    String category,
+    UUID shopId,
+    Integer minPrice,
+    Integer maxPrice,
+    Boolean inStock
+) {
+
+    public boolean inStockOnly() {
+        return Boolean.TRUE.equals(inStock);
+    }
+}
@@ -1,4 +1,6 @@
 package com.oktech.boasaude.dto;
+import java.util.UUID;
+
 import com.oktech.boasaude.entity.Product;
 
 /** * DTO para resposta de produto.
@@ -15,6 +17,15 @@ public record ProductResponseDto(
     String category,
     Integer stock
 ) {
+    /**
+     * Construtor usado pelas projeções JPQL (SELECT new ...), que recebem o ID
+     * como UUID.
+     */
+    public ProductResponseDto(UUID id, String name, String description, Integer price, String category,
+            Integer stock) {
+        this(id.toString(), name, description, price, category, stock);
+    }
+
     /**
      * Construtor para criar um ProductResponseDto a partir de uma entidade Product.
      * @param product A entidade Product a ser convertida.
@@ -0,0 +1,15 @@
+package com.oktech.boasaude.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO para renovação do token de acesso.
+ * Contém o refresh token recebido no login ou na última renovação.
+ * 
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public record RefreshTokenDto(
+        @NotBlank(message = "Refresh token is required") String refreshToken) {
+
+}
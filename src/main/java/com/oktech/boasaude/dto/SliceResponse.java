@@ -0,0 +1,23 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Envelope enxuto para listagens sem contagem: os itens, se há próxima página
+ * e o número dela. O total só é incluído quando solicitado e é aproximado.
+ * 
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SliceResponse<T>(List<T> items, boolean hasNext, Integer next, Long total) {
+
+    public static <T> SliceResponse<T> of(Slice<T> slice, Long total) {
+        return new SliceResponse<>(slice.getContent(), slice.hasNext(),
+                slice.hasNext() ? slice.getNumber() + 1 : null, total);
+    }
+}
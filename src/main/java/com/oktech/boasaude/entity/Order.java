@@ -1,6 +1,5 @@
 package com.oktech.boasaude.entity;
 
-import jakarta.persistence.Transient;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -62,6 +61,11 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    // Totals kept on the order row, so listings don't need to load the items
+    private Long totalAmount = 0L;
+
+    private Integer itemCount = 0; // Units across all items
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -70,16 +74,23 @@ public class Order {
     private LocalDateTime updatedAt;
 
     /**
-     * Calculates the total price of the order by summing the total prices of all
-     * order items.
+     * Total price of the order, as stored on the order row.
      * 
      * @return Total price as BigInteger.
      */
-    @Transient
     public BigInteger getTotalPrice() {
-        return items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigInteger.ZERO, BigInteger::add);
+        return BigInteger.valueOf(totalAmount);
+    }
+
+    /**
+     * Adds an item to the order and updates the stored totals.
+     * 
+     * @param item The item to add, already pointing to this order.
+     */
+    public void addItem(OrderItem item) {
+        items.add(item);
+        totalAmount = Math.addExact(totalAmount, item.getTotalAmount());
+        itemCount = Math.addExact(itemCount, item.getQuantity());
     }
 
     /**
@@ -53,6 +53,9 @@ public class OrderItem {
 
     private Integer quantity;
 
+    // Product price captured at checkout, so later price changes don't alter the order
+    private Integer unitPrice;
+
     // Timestamps for creation and last update
     @CreatedDate
     private LocalDateTime createdAt;
@@ -62,19 +65,27 @@ public class OrderItem {
     private LocalDateTime updatedAt;
 
     /**
-     * Calculates the total price of the order item based on the product price and
-     * quantity.
+     * Calculates the total price of the order item from the unit price captured
+     * at checkout. Multiplied as long, so it cannot overflow.
      * 
      * @return Total price as BigInteger.
      */
     public BigInteger getTotalPrice() {
-        return BigInteger.valueOf(product.getPrice().intValue() * quantity);
+        return BigInteger.valueOf(getTotalAmount());
+    }
+
+    /**
+     * Total price of the item as a long.
+     */
+    public long getTotalAmount() {
+        return (long) unitPrice * quantity;
     }
 
     public OrderItem(Order order, Product product, Integer quantity) {
         this.order = order;
         this.product = product;
         this.quantity = quantity;
+        this.unitPrice = product.getPrice();
     }
     
 }
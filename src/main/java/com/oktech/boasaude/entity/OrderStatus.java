@@ -3,6 +3,8 @@ package com.oktech.boasaude.entity;
 
 /**
  * Enumeração que representa os possíveis status de um pedido.
+ * Um pedido nasce PENDING e só sai dele para COMPLETED ou CANCELLED, que são
+ * finais.
  * 
  * @author João Martins
  * @version 1.0
@@ -22,4 +24,31 @@ public enum OrderStatus {
     public String getStatus() {
         return status;
     }
+
+    /**
+     * @param target Status de destino.
+     * @return true se a mudança deste status para o destino é permitida.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return switch (this) {
+            case PENDING -> target == COMPLETED || target == CANCELLED;
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
+
+    /**
+     * Lê o status informado na requisição, sem diferenciar maiúsculas.
+     *
+     * @throws IllegalArgumentException se o valor não for um status.
+     */
+    public static OrderStatus parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Status cannot be null or empty.");
+        }
+        try {
+            return OrderStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status value: " + value);
+        }
+    }
 }
@@ -18,6 +18,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -58,6 +59,10 @@ public class Product {
 
     private Integer stock;
 
+    // Controle otimista: a edição falha se o produto mudou desde a leitura
+    @Version
+    private Long version;
+
     // Timestamps for creation and last update
     @CreatedDate
     private LocalDateTime createdAt;
@@ -42,4 +42,14 @@ public enum UserRole {
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifica se este papel tem todas as autoridades de outro.
+     * 
+     * @param other Papel a comparar.
+     * @return false se trocar other por este papel tira alguma autoridade.
+     */
+    public boolean includes(UserRole other) {
+        return roles.containsAll(other.roles);
+    }
+}
@@ -0,0 +1,81 @@
+package com.oktech.boasaude.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Tabela catalog_versions: um contador por escopo do catálogo, compartilhado
+ * entre as instâncias.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Repository
+public class CatalogVersionRepository {
+
+    /**
+     * Cria ou incrementa os contadores, em ordem de escopo para que duas
+     * instâncias incrementando os mesmos escopos não entrem em deadlock.
+     */
+    private static final String BUMP_SQL = """
+            INSERT INTO catalog_versions (scope, version, updated_at)
+            SELECT s.scope, 1, clock_timestamp()
+              FROM unnest(?::varchar[]) AS s(scope)
+             ORDER BY s.scope
+            ON CONFLICT (scope) DO UPDATE
+               SET version = catalog_versions.version + 1,
+                   updated_at = EXCLUDED.updated_at
+            RETURNING scope, version
+            """;
+
+    /**
+     * @param versions Versão por escopo.
+     * @param latest   Maior updated_at lido; nulo se nada foi lido.
+     */
+    public record Changes(Map<String, Long> versions, LocalDateTime latest) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return A nova versão de cada escopo.
+     */
+    public Map<String, Long> bump(Collection<String> scopes) {
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query(BUMP_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", scopes.toArray())),
+                rs -> {
+                    versions.put(rs.getString(1), rs.getLong(2));
+                });
+        return versions;
+    }
+
+    /**
+     * @param since Só escopos alterados a partir daqui; nulo lê todos.
+     */
+    public Changes findChangedSince(LocalDateTime since) {
+        Timestamp from = Timestamp.valueOf(since != null ? since : LocalDateTime.of(1970, 1, 1, 0, 0));
+        Map<String, Long> versions = new HashMap<>();
+        LocalDateTime[] latest = new LocalDateTime[1];
+        jdbcTemplate.query("SELECT scope, version, updated_at FROM catalog_versions WHERE updated_at >= ?",
+                ps -> ps.setTimestamp(1, from),
+                rs -> {
+                    versions.put(rs.getString(1), rs.getLong(2));
+                    LocalDateTime updatedAt = rs.getTimestamp(3).toLocalDateTime();
+                    if (latest[0] == null || updatedAt.isAfter(latest[0])) {
+                        latest[0] = updatedAt;
+                    }
+                });
+        return new Changes(versions, latest[0]);
+    }
+}
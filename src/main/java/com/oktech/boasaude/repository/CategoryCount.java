@@ -0,0 +1,13 @@
+package com.oktech.boasaude.repository;
+
+import java.util.UUID;
+
+/**
+ * Quantidade de produtos de uma loja em uma categoria, usada para montar as
+ * contagens de facetas.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+public record CategoryCount(UUID shopId, String category, Long count) {
+}
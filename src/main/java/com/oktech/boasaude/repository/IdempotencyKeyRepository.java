@@ -0,0 +1,79 @@
+package com.oktech.boasaude.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Tabela idempotency_keys: uma linha por (usuário, chave). A linha é criada
+ * ao começar o processamento (claim) e recebe a resposta ao final, na mesma
+ * transação da escrita protegida.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    /**
+     * Cria a linha, ou assume uma linha sem resposta cujo dono não terminou
+     * dentro do prazo (instância que caiu no meio do processamento).
+     */
+    private static final String CLAIM_SQL = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE
+               SET request_hash = EXCLUDED.request_hash,
+                   created_at = EXCLUDED.created_at
+             WHERE idempotency_keys.response_body IS NULL
+               AND idempotency_keys.created_at < ?
+            """;
+
+    public record StoredKey(String requestHash, String responseBody) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param staleBefore Claims sem resposta criados antes disso podem ser assumidos.
+     * @return true se a chave ficou com quem chamou.
+     */
+    public boolean claim(UUID userId, String key, String requestHash, LocalDateTime now, LocalDateTime staleBefore) {
+        return jdbcTemplate.update(CLAIM_SQL, userId, key, requestHash, now, staleBefore) == 1;
+    }
+
+    public Optional<StoredKey> find(UUID userId, String key) {
+        List<StoredKey> rows = jdbcTemplate.query(
+                "SELECT request_hash, response_body FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+                (rs, rowNum) -> new StoredKey(rs.getString(1), rs.getString(2)), userId, key);
+        return rows.stream().findFirst();
+    }
+
+    public void complete(UUID userId, String key, String responseBody) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_keys SET response_body = ? WHERE user_id = ? AND idempotency_key = ?",
+                responseBody, userId, key);
+    }
+
+    /**
+     * Libera uma chave cujo processamento falhou, para que o cliente possa
+     * tentar de novo.
+     */
+    public void release(UUID userId, String key) {
+        jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND response_body IS NULL",
+                userId, key);
+    }
+
+    public int deleteOlderThan(LocalDateTime createdBefore) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", createdBefore);
+    }
+}
@@ -0,0 +1,107 @@
+package com.oktech.boasaude.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.PageCursor;
+
+/**
+ * Paginação por cursor (keyset) sobre a chave estável (createdAt, id), do mais
+ * recente para o mais antigo. Em vez de OFFSET, cada página continua a partir
+ * da chave do último item, então o custo não cresce com a profundidade.
+ * Os índices compostos da migração V6 atendem essa ordenação.
+ * 
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+public final class KeysetPagination {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CREATED_AT = "createdAt";
+
+    private static final String ID = "id";
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc(CREATED_AT), Sort.Order.desc(ID));
+
+    private static final Sort OLDEST_FIRST = Sort.by(Sort.Order.asc(CREATED_AT), Sort.Order.asc(ID));
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Busca uma página a partir do cursor informado.
+     * 
+     * @param repository Repositório da entidade.
+     * @param filter     Filtro adicional (loja, usuário...), ou null.
+     * @param cursor     Token da página, ou null para a primeira página.
+     * @param size       Tamanho da página.
+     * @param createdAt  Extrai o createdAt da entidade.
+     * @param id         Extrai o ID da entidade.
+     * @return A página com os tokens de navegação.
+     */
+    public static <T> CursorPage<T> fetch(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+            String cursor, int size, Function<T, LocalDateTime> createdAt, Function<T, UUID> id) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        PageCursor position = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        boolean backward = position != null && position.backward();
+
+        Specification<T> spec = filter != null ? filter : (root, query, cb) -> null;
+        if (position != null) {
+            spec = spec.and(backward ? newerThan(position) : olderThan(position));
+        }
+
+        Sort sort = backward ? OLDEST_FIRST : NEWEST_FIRST;
+        // Um item a mais indica se existe outra página no mesmo sentido, sem count
+        List<T> rows = repository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+        boolean more = rows.size() > size;
+        List<T> items = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (backward) {
+            Collections.reverse(items);
+        }
+
+        if (items.isEmpty()) {
+            return new CursorPage<>(List.of(), false, null, null);
+        }
+
+        T first = items.get(0);
+        T last = items.get(items.size() - 1);
+        String next = !backward && !more ? null
+                : new PageCursor(createdAt.apply(last), id.apply(last), false).encode();
+        String previous = position == null || (backward && !more) ? null
+                : new PageCursor(createdAt.apply(first), id.apply(first), true).encode();
+        return new CursorPage<>(items, next != null, next, previous);
+    }
+
+    /**
+     * (createdAt, id) < cursor. O termo createdAt <= c repete a condição de
+     * forma que o Postgres consiga usá-la como limite da varredura no índice.
+     */
+    private static <T> Specification<T> olderThan(PageCursor cursor) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.<LocalDateTime>get(CREATED_AT), cursor.createdAt()),
+                cb.or(
+                        cb.lessThan(root.<LocalDateTime>get(CREATED_AT), cursor.createdAt()),
+                        cb.lessThan(root.<UUID>get(ID), cursor.id())));
+    }
+
+    private static <T> Specification<T> newerThan(PageCursor cursor) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.<LocalDateTime>get(CREATED_AT), cursor.createdAt()),
+                cb.or(
+                        cb.greaterThan(root.<LocalDateTime>get(CREATED_AT), cursor.createdAt()),
+                        cb.greaterThan(root.<UUID>get(ID), cursor.id())));
+    }
+}
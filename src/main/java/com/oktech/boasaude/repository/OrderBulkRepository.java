@@ -0,0 +1,118 @@
+package com.oktech.boasaude.repository;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Mudanças de status de vários pedidos de uma vez: uma leitura dos status
+ * atuais e um UPDATE por status de origem, em vez de um findById + save por
+ * pedido.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Repository
+public class OrderBulkRepository {
+
+    /**
+     * Um pedido é da loja quando tem itens e todos eles são de produtos dela;
+     * pedidos com produtos de outras lojas ficam de fora e só um
+     * administrador os altera (ver findStatuses).
+     */
+    private static final String SHOP_STATUSES_SQL = """
+            SELECT o.id, o.status
+              FROM orders o
+             WHERE o.id = ANY(?)
+               AND EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id)
+               AND NOT EXISTS (SELECT 1
+                                 FROM order_items i
+                                 JOIN products p ON p.id = i.product_id
+                                WHERE i.order_id = o.id
+                                  AND p.shop_id <> ?)
+            """;
+
+    private static final String STATUSES_SQL = "SELECT id, status FROM orders WHERE id = ANY(?)";
+
+    /**
+     * O filtro por status de origem torna o UPDATE condicional: um pedido
+     * alterado por outra requisição depois da leitura não casa e não volta
+     * no RETURNING.
+     */
+    private static final String TRANSITION_SQL = """
+            UPDATE orders
+               SET status = ?,
+                   updated_at = ?
+             WHERE id = ANY(?)
+               AND status = ?
+            RETURNING id, user_id, total_amount, item_count
+            """;
+
+    public record TransitionedOrder(UUID id, UUID userId, long totalAmount, int itemCount) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return Status atual dos pedidos informados que pertencem à loja.
+     */
+    public Map<UUID, OrderStatus> findStatusesForShop(UUID shopId, Collection<UUID> orderIds) {
+        Map<UUID, OrderStatus> statuses = new HashMap<>();
+        jdbcTemplate.query(SHOP_STATUSES_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray()));
+            ps.setObject(2, shopId);
+        }, rs -> {
+            statuses.put(rs.getObject(1, UUID.class), OrderStatus.valueOf(rs.getString(2)));
+        });
+        return statuses;
+    }
+
+    /**
+     * Sem filtro de loja: usado por administradores, que também alteram
+     * pedidos com itens de várias lojas.
+     *
+     * @return Status atual dos pedidos informados que existem.
+     */
+    public Map<UUID, OrderStatus> findStatuses(Collection<UUID> orderIds) {
+        Map<UUID, OrderStatus> statuses = new HashMap<>();
+        jdbcTemplate.query(STATUSES_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+                rs -> {
+                    statuses.put(rs.getObject(1, UUID.class), OrderStatus.valueOf(rs.getString(2)));
+                });
+        return statuses;
+    }
+
+    /**
+     * Muda de from para to os pedidos informados que ainda estão em from.
+     *
+     * @return Os pedidos alterados.
+     */
+    public List<TransitionedOrder> transition(Collection<UUID> orderIds, OrderStatus from, OrderStatus to,
+            LocalDateTime now) {
+        return jdbcTemplate.query(TRANSITION_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setString(1, to.name());
+            ps.setObject(2, now);
+            ps.setArray(3, connection.createArrayOf("uuid", orderIds.toArray()));
+            ps.setString(4, from.name());
+        }, (rs, rowNum) -> new TransitionedOrder(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getLong(3),
+                rs.getInt(4)));
+    }
+}
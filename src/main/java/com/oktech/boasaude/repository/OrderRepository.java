@@ -1,13 +1,52 @@
 package com.oktech.boasaude.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.oktech.boasaude.dto.OrderSummaryDto;
 import com.oktech.boasaude.entity.Order;
 
-public interface OrderRepository extends JpaRepository<Order, UUID> {
-    Page<Order> findByUserId(UUID userId, Pageable pageable);
+/**
+ * As listagens de pedidos são feitas em duas etapas: primeiro a página de
+ * IDs (paginada no banco), depois os pedidos desses IDs com itens e produtos
+ * num único fetch join. Paginar o próprio fetch join de uma coleção faria o
+ * Hibernate trazer todas as linhas e paginar em memória.
+ */
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
+    long countByUserId(UUID userId);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.user.id = :userId",
+            countQuery = "SELECT count(o) FROM Order o WHERE o.user.id = :userId")
+    Page<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId")
+    Slice<UUID> findIdSliceByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Pedidos com itens e produtos já carregados, em qualquer ordem.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @EntityGraph(attributePaths = { "items", "items.product" })
+    Optional<Order> findWithItemsById(UUID id);
+
+    /**
+     * Histórico do usuário montado só com a tabela orders, usando os totais
+     * gravados no checkout.
+     */
+    @Query("SELECT new com.oktech.boasaude.dto.OrderSummaryDto(o.id, o.status, o.totalAmount, o.itemCount, o.createdAt) "
+            + "FROM Order o WHERE o.user.id = :userId")
+    Slice<OrderSummaryDto> findSummarySliceByUserId(@Param("userId") UUID userId, Pageable pageable);
 }
@@ -0,0 +1,109 @@
+package com.oktech.boasaude.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Tabela outbox: eventos gravados junto com a mudança que os gerou e
+ * consumidos pelo dispatcher. Todos os métodos usam a transação corrente.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at, next_attempt_at)
+            VALUES (?, ?, ?, ?::jsonb, ?, ?)
+            """;
+
+    /**
+     * Trava o lote; linhas já travadas por outra instância são puladas em vez
+     * de esperar por elas.
+     */
+    private static final String LOCK_PENDING_SQL = """
+            SELECT id, aggregate_type, aggregate_id, event_type, payload::text, created_at, attempts
+              FROM outbox
+             WHERE next_attempt_at <= ?
+             ORDER BY next_attempt_at, id
+             LIMIT ?
+               FOR UPDATE SKIP LOCKED
+            """;
+
+    public record OutboxEvent(long id, String aggregateType, UUID aggregateId, String eventType, String payload,
+            LocalDateTime createdAt, int attempts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(String aggregateType, UUID aggregateId, String eventType, String payload,
+            LocalDateTime createdAt) {
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, payload, createdAt, createdAt);
+    }
+
+    /**
+     * Grava vários eventos do mesmo tipo num único batch JDBC.
+     *
+     * @param payloads JSON do evento por ID da entidade.
+     */
+    public void appendAll(String aggregateType, String eventType, Map<UUID, String> payloads,
+            LocalDateTime createdAt) {
+        List<Object[]> args = new ArrayList<>(payloads.size());
+        payloads.forEach((aggregateId, payload) -> args.add(
+                new Object[] { aggregateType, aggregateId, eventType, payload, createdAt, createdAt }));
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * Deve ser chamado dentro de uma transação: as linhas ficam travadas até o
+     * commit.
+     */
+    public List<OutboxEvent> lockPending(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(LOCK_PENDING_SQL, (rs, rowNum) -> new OutboxEvent(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getObject(3, UUID.class),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getTimestamp(6).toLocalDateTime(),
+                rs.getInt(7)), Timestamp.valueOf(now), limit);
+    }
+
+    public void deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("DELETE FROM outbox WHERE id = ANY(?)");
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        });
+    }
+
+    public void retryLater(long id, int attempts, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update("UPDATE outbox SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?",
+                attempts, nextAttemptAt, error, id);
+    }
+
+    /**
+     * Tira o evento do polling sem apagá-lo, para que possa ser analisado e
+     * reenfileirado manualmente.
+     */
+    public void park(long id, int attempts, String error) {
+        jdbcTemplate.update("UPDATE outbox SET attempts = ?, next_attempt_at = NULL, last_error = ? WHERE id = ?",
+                attempts, error, id);
+    }
+}
@@ -0,0 +1,302 @@
+package com.oktech.boasaude.repository;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.oktech.boasaude.dto.BulkProductUpdateDto;
+
+/**
+ * Alterações de preço e estoque em lote, num único UPDATE ... FROM unnest(...)
+ * em vez de um findById + save por produto. A variação de estoque é somada no
+ * próprio SQL, então alterações concorrentes não se sobrescrevem.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Repository
+public class ProductBulkRepository {
+
+    /**
+     * Só altera produtos da loja informada: IDs de outras lojas não casam com o
+     * filtro e ficam de fora da contagem. Variações que deixariam o estoque
+     * negativo também não são aplicadas, nem mudanças de estoque de produtos
+     * em flash sale.
+     */
+    private static final String UPDATE_SQL = """
+            UPDATE products p
+               SET price = COALESCE(v.price, p.price),
+                   stock = COALESCE(v.stock, p.stock + COALESCE(v.delta, 0)),
+                   version = p.version + 1,
+                   updated_at = ?
+              FROM unnest(?::uuid[], ?::int[], ?::int[], ?::int[]) AS v(id, price, stock, delta)
+             WHERE p.id = v.id
+               AND p.shop_id = ?
+               AND (v.delta IS NULL OR p.stock + v.delta >= 0)
+               AND (p.flash_sale_owner IS NULL OR (v.stock IS NULL AND v.delta IS NULL))
+            """;
+
+    /**
+     * Baixa condicional: a linha só é alterada se ainda houver estoque e o
+     * produto não estiver em flash sale, e o lock da linha serializa as
+     * reservas concorrentes do mesmo produto. Uma reserva que esperava o lock
+     * enquanto a venda começava reavalia o filtro na linha nova e não casa.
+     */
+    private static final String RESERVE_SQL = """
+            UPDATE products
+               SET stock = stock - ?,
+                   version = version + 1,
+                   updated_at = ?
+             WHERE id = ?
+               AND stock >= ?
+               AND flash_sale_owner IS NULL
+            """;
+
+    /**
+     * Baixa já reservada em memória (modo flash sale); devoluções de pedidos
+     * cancelados chegam como valores negativos. O saldo foi controlado antes,
+     * então a condição só falha se o estoque foi alterado por fora durante a
+     * venda; esses produtos vão para CLAMP_SQL.
+     */
+    private static final String DECREMENT_SQL = """
+            UPDATE products
+               SET stock = stock - ?,
+                   version = version + 1,
+                   updated_at = ?
+             WHERE id = ?
+               AND stock >= ?
+            """;
+
+    /**
+     * Zera o estoque e devolve o valor anterior, para que as unidades
+     * vendidas além do estoque sejam contadas em vez de sumirem.
+     */
+    private static final String CLAMP_SQL = """
+            UPDATE products p
+               SET stock = 0,
+                   version = p.version + 1,
+                   updated_at = ?
+              FROM (SELECT id, stock FROM products WHERE id = ? FOR UPDATE) previous
+             WHERE p.id = previous.id
+            RETURNING previous.stock
+            """;
+
+    /**
+     * Marca a venda para esta instância, travando a linha; não casa se outra
+     * instância já tem a venda.
+     */
+    private static final String CLAIM_FLASH_SALE_SQL = """
+            UPDATE products
+               SET flash_sale_owner = ?
+             WHERE id = ?
+               AND (flash_sale_owner IS NULL OR flash_sale_owner = ?)
+            RETURNING stock
+            """;
+
+    /**
+     * Devolução de unidades reservadas nesta mesma transação ou de pedidos
+     * cancelados.
+     */
+    private static final String RELEASE_SQL = """
+            UPDATE products
+               SET stock = stock + ?,
+                   version = version + 1,
+                   updated_at = ?
+             WHERE id = ?
+            """;
+
+    /**
+     * Unidades por produto dos itens dos pedidos informados.
+     */
+    private static final String ORDERED_QUANTITIES_SQL = """
+            SELECT i.product_id, p.shop_id, SUM(i.quantity)
+              FROM order_items i
+              JOIN products p ON p.id = i.product_id
+             WHERE i.order_id = ANY(?)
+             GROUP BY i.product_id, p.shop_id
+            """;
+
+    public record OrderedQuantity(UUID productId, UUID shopId, int quantity) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Aplica as alterações aos produtos da loja.
+     *
+     * @param shopId ID da loja.
+     * @param items  Alterações, no máximo uma por produto.
+     * @param now    Valor gravado em updated_at.
+     * @return Quantidade de produtos alterados.
+     */
+    public int applyUpdates(UUID shopId, List<BulkProductUpdateDto.Item> items, LocalDateTime now) {
+        int size = items.size();
+        UUID[] ids = new UUID[size];
+        Integer[] prices = new Integer[size];
+        Integer[] stocks = new Integer[size];
+        Integer[] deltas = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            BulkProductUpdateDto.Item item = items.get(i);
+            ids[i] = item.productId();
+            prices[i] = item.price();
+            stocks[i] = item.stock();
+            deltas[i] = item.stockDelta();
+        }
+
+        return jdbcTemplate.update(UPDATE_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setObject(1, now);
+            ps.setArray(2, connection.createArrayOf("uuid", ids));
+            ps.setArray(3, connection.createArrayOf("int4", prices));
+            ps.setArray(4, connection.createArrayOf("int4", stocks));
+            ps.setArray(5, connection.createArrayOf("int4", deltas));
+            ps.setObject(6, shopId);
+        });
+    }
+
+    /**
+     * Reserva o estoque de vários produtos, num único batch JDBC. As linhas
+     * são travadas sempre na mesma ordem (por ID), então duas reservas que
+     * disputam os mesmos produtos não entram em deadlock. Deve rodar dentro
+     * da transação do pedido: se algum produto não tiver estoque, quem chama
+     * lança a exceção e o rollback desfaz as baixas já aplicadas.
+     *
+     * @param quantities Quantidade a reservar por produto.
+     * @param now        Valor gravado em updated_at.
+     * @return IDs dos produtos sem estoque suficiente; vazio se todas as
+     *         baixas foram aplicadas.
+     */
+    public List<UUID> reserveStock(Map<UUID, Integer> quantities, LocalDateTime now) {
+        SortedMap<UUID, Integer> ordered = new TreeMap<>(quantities);
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        ordered.forEach((id, quantity) -> args.add(new Object[] { quantity, now, id, quantity }));
+
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, args);
+
+        List<UUID> insufficient = new ArrayList<>();
+        int i = 0;
+        for (UUID id : ordered.keySet()) {
+            if (counts[i++] == 0) {
+                insufficient.add(id);
+            }
+        }
+        return insufficient;
+    }
+
+    /**
+     * Grava baixas de estoque já reservadas, num único batch e em ordem de ID.
+     * Um produto sem estoque para a baixa inteira fica com estoque zero.
+     *
+     * @param decrements Unidades a baixar por produto.
+     * @param now        Valor gravado em updated_at.
+     * @return Unidades baixadas além do estoque, por produto; vazio se todas
+     *         couberam.
+     */
+    public Map<UUID, Integer> applyStockDecrements(Map<UUID, Integer> decrements, LocalDateTime now) {
+        SortedMap<UUID, Integer> ordered = new TreeMap<>(decrements);
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        ordered.forEach((id, quantity) -> args.add(new Object[] { quantity, now, id, quantity }));
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+
+        Map<UUID, Integer> oversold = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<UUID, Integer> entry : ordered.entrySet()) {
+            if (counts[i++] == 0) {
+                List<Integer> previous = jdbcTemplate.queryForList(CLAMP_SQL, Integer.class, now, entry.getKey());
+                if (!previous.isEmpty()) {
+                    oversold.put(entry.getKey(), entry.getValue() - previous.get(0));
+                }
+            }
+        }
+        return oversold;
+    }
+
+    /**
+     * Devolve ao estoque unidades reservadas, num único batch e em ordem de ID.
+     *
+     * @param quantities Unidades a devolver por produto.
+     * @param now        Valor gravado em updated_at.
+     */
+    public void releaseStock(Map<UUID, Integer> quantities, LocalDateTime now) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        new TreeMap<>(quantities).forEach((id, quantity) -> args.add(new Object[] { quantity, now, id }));
+        jdbcTemplate.batchUpdate(RELEASE_SQL, args);
+    }
+
+    /**
+     * Soma, por produto, as quantidades dos itens dos pedidos informados.
+     *
+     * @param orderIds IDs dos pedidos.
+     * @return Uma linha por produto, com a loja dele.
+     */
+    public List<OrderedQuantity> findOrderedQuantities(Collection<UUID> orderIds) {
+        return jdbcTemplate.query(ORDERED_QUANTITIES_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+                (rs, rowNum) -> new OrderedQuantity(
+                        rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class),
+                        Math.toIntExact(rs.getLong(3))));
+    }
+
+    /**
+     * Marca o produto em flash sale para a instância e lê o estoque, travando
+     * a linha até o fim da transação corrente, o que espera as reservas em
+     * andamento sobre o produto.
+     *
+     * @param productId ID do produto.
+     * @param owner     Identificador da instância.
+     * @return O estoque, ou null se o produto não existir ou a venda for de
+     *         outra instância.
+     */
+    public Integer claimFlashSale(UUID productId, String owner) {
+        List<Integer> stock = jdbcTemplate.queryForList(CLAIM_FLASH_SALE_SQL, Integer.class, owner, productId, owner);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    /**
+     * Desmarca a venda do produto, se ela for da instância.
+     */
+    public void releaseFlashSale(UUID productId, String owner) {
+        jdbcTemplate.update("UPDATE products SET flash_sale_owner = NULL WHERE id = ? AND flash_sale_owner = ?",
+                productId, owner);
+    }
+
+    /**
+     * Desmarca todas as vendas da instância.
+     *
+     * @return Quantidade de produtos desmarcados.
+     */
+    public int releaseFlashSales(String owner) {
+        return jdbcTemplate.update("UPDATE products SET flash_sale_owner = NULL WHERE flash_sale_owner = ?", owner);
+    }
+
+    /**
+     * @return Os produtos informados que estão em flash sale em alguma instância.
+     */
+    public Set<UUID> findInFlashSale(Collection<UUID> productIds) {
+        Set<UUID> ids = new HashSet<>();
+        jdbcTemplate.query("SELECT id FROM products WHERE id = ANY(?) AND flash_sale_owner IS NOT NULL",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", productIds.toArray())),
+                rs -> {
+                    ids.add(rs.getObject(1, UUID.class));
+                });
+        return ids;
+    }
+}
@@ -0,0 +1,171 @@
+package com.oktech.boasaude.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import com.oktech.boasaude.dto.ProductQueryDto;
+import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.entity.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Consulta de produtos com filtros combináveis, montada com Specifications e
+ * projetada direto no ProductResponseDto.
+ * Só são aceitas ordenações que algum índice composto atende (V6 e V7):
+ * recência sempre; preço apenas com categoria ou com inStock=true. Combinações
+ * sem índice são recusadas, assim como páginas grandes ou profundas demais,
+ * para que nenhuma consulta termine em um sort da tabela inteira.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Repository
+public class ProductQueryRepository {
+
+    public static final int MAX_PAGE_SIZE = KeysetPagination.MAX_PAGE_SIZE;
+
+    /**
+     * Além disso, a paginação por cursor é o caminho.
+     */
+    public static final long MAX_OFFSET = 10_000;
+
+    private static final String PRICE = "price";
+
+    private static final String CREATED_AT = "createdAt";
+
+    private static final String ID = "id";
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Order.desc(CREATED_AT));
+
+    private final EntityManager entityManager;
+
+    public ProductQueryRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Busca uma fatia de produtos, sem count(*).
+     *
+     * @throws IllegalArgumentException para ordenações sem índice ou páginas
+     *                                  fora dos limites.
+     */
+    public Slice<ProductResponseDto> find(ProductQueryDto criteria, Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be at most " + MAX_PAGE_SIZE + ".");
+        }
+        if (pageable.getOffset() > MAX_OFFSET) {
+            throw new IllegalArgumentException("Offset must be at most " + MAX_OFFSET + "; use cursor pagination.");
+        }
+        if (criteria.minPrice() != null && criteria.maxPrice() != null && criteria.minPrice() > criteria.maxPrice()) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice.");
+        }
+        Sort sort = resolveSort(criteria, pageable.getSort());
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponseDto> query = cb.createQuery(ProductResponseDto.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductResponseDto.class, root.get(ID), root.get("name"),
+                root.get("description"), root.get(PRICE), root.get("category"), root.get("stock")));
+        query.where(toSpecification(criteria).toPredicate(root, query, cb));
+        query.orderBy(toOrders(sort, root, cb));
+
+        // Um item a mais indica se há próxima página
+        List<ProductResponseDto> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<ProductResponseDto> items = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(items, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort),
+                hasNext);
+    }
+
+    /**
+     * Valida a ordenação pedida contra os índices disponíveis.
+     *
+     * @return A ordenação a aplicar (recência decrescente se nenhuma for pedida).
+     */
+    public static Sort resolveSort(ProductQueryDto criteria, Sort requested) {
+        if (requested == null || requested.isUnsorted()) {
+            return DEFAULT_SORT;
+        }
+        List<Sort.Order> orders = requested.toList();
+        if (orders.size() > 1) {
+            throw new IllegalArgumentException("Only one sort property is supported.");
+        }
+
+        Sort.Order order = orders.get(0);
+        switch (order.getProperty()) {
+            case CREATED_AT:
+                return Sort.by(order.getDirection(), CREATED_AT);
+            case PRICE:
+                // (category, price, id) ou o índice parcial (price, id) WHERE stock > 0
+                if (criteria.category() == null && !criteria.inStockOnly()) {
+                    throw new IllegalArgumentException("Sorting by price requires a category or inStock=true.");
+                }
+                return Sort.by(order.getDirection(), PRICE);
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported sort property: " + order.getProperty() + ". Use price or createdAt.");
+        }
+    }
+
+    static Specification<Product> toSpecification(ProductQueryDto criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.name() != null && !criteria.name().isBlank()) {
+                String prefix = escapeLike(criteria.name().trim().toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.like(cb.lower(root.<String>get("name")), prefix, '\\'));
+            }
+            if (criteria.category() != null) {
+                predicates.add(cb.equal(root.get("category"), criteria.category()));
+            }
+            if (criteria.shopId() != null) {
+                predicates.add(cb.equal(root.get("shop").get(ID), criteria.shopId()));
+            }
+            if (criteria.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Integer>get(PRICE), criteria.minPrice()));
+            }
+            if (criteria.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Integer>get(PRICE), criteria.maxPrice()));
+            }
+            if (criteria.inStockOnly()) {
+                // Literal, e não parâmetro, para o planner casar com os índices parciais
+                predicates.add(cb.greaterThan(root.<Integer>get("stock"), cb.literal(0)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static List<Order> toOrders(Sort sort, Root<Product> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        Sort.Direction direction = Sort.Direction.DESC;
+        for (Sort.Order order : sort) {
+            direction = order.getDirection();
+            orders.add(order.isAscending() ? cb.asc(root.get(order.getProperty()))
+                    : cb.desc(root.get(order.getProperty())));
+        }
+        // Desempate estável pelo ID, no mesmo sentido, como nos índices
+        orders.add(direction.isAscending() ? cb.asc(root.get(ID)) : cb.desc(root.get(ID)));
+        return orders;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,16 +1,31 @@
 package com.oktech.boasaude.repository;
 
+import com.oktech.boasaude.dto.ProductResponseDto;
 import com.oktech.boasaude.entity.Product;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
+
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repositório para operações CRUD com a entidade Product.
- * Fornece métodos para buscar produtos por loja, nome e categoria.
+ * Fornece métodos para buscar produtos por loja e categoria. A busca por nome
+ * é feita pelo ProductSearchService.
  * 
  * @author João Martins
  * @version 1.0
@@ -18,13 +33,76 @@ import java.util.UUID;
  * @version 1.1 - Adicionado método para buscar produtos por ID de loja.
  */
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {
-    Page<Product> findAllByShopId(UUID shopId, Pageable pageable);
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+
+    /**
+     * Projeção direto no DTO de resposta: só as colunas usadas pela API, sem
+     * entidades gerenciadas nem snapshots para dirty-checking.
+     */
+    String SELECT_RESPONSE = "SELECT new com.oktech.boasaude.dto.ProductResponseDto("
+            + "p.id, p.name, p.description, p.price, p.category, p.stock) FROM Product p";
 
-    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    Page<Product> findAllByShopId(UUID shopId, Pageable pageable);
 
     Page<Product> findByCategory(String category, Pageable pageable);
 
     Page<Product> findByShopId(UUID shopId, Pageable pageable);
 
+    @Query(value = SELECT_RESPONSE, countQuery = "SELECT count(p) FROM Product p")
+    Page<ProductResponseDto> findAllResponses(Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE + " WHERE p.shop.id = :shopId",
+            countQuery = "SELECT count(p) FROM Product p WHERE p.shop.id = :shopId")
+    Page<ProductResponseDto> findResponsesByShopId(@Param("shopId") UUID shopId, Pageable pageable);
+
+    // Variantes em Slice: buscam um item a mais em vez de executar count(*)
+    @Query(SELECT_RESPONSE)
+    Slice<ProductResponseDto> findResponseSlice(Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " WHERE p.shop.id = :shopId")
+    Slice<ProductResponseDto> findResponseSliceByShopId(@Param("shopId") UUID shopId, Pageable pageable);
+
+    long countByShopId(UUID shopId);
+
+    /**
+     * Lê a tabela em lotes ordenados por ID, usado na reconstrução do índice
+     * de busca.
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
+
+    @Query(SELECT_RESPONSE + " WHERE (:category IS NULL OR p.category = :category) "
+            + "AND (:shopId IS NULL OR p.shop.id = :shopId) "
+            + "AND (:minPrice IS NULL OR p.price >= :minPrice) "
+            + "AND (:maxPrice IS NULL OR p.price <= :maxPrice)")
+    Slice<ProductResponseDto> findResponseSliceByFilter(@Param("category") String category,
+            @Param("shopId") UUID shopId, @Param("minPrice") Integer minPrice, @Param("maxPrice") Integer maxPrice,
+            Pageable pageable);
+
+    /**
+     * Contagem completa por loja e categoria. Usada apenas para reconstruir as
+     * facetas em memória, nunca por requisição.
+     */
+    @Query("SELECT new com.oktech.boasaude.repository.CategoryCount(p.shop.id, p.category, count(p)) "
+            + "FROM Product p WHERE p.category IS NOT NULL GROUP BY p.shop.id, p.category")
+    List<CategoryCount> countByShopAndCategory();
+
+    /**
+     * Percorre os produtos com um cursor do servidor, buscando 500 linhas por
+     * ida ao banco. Filtros nulos são ignorados. Precisa ser consumido dentro
+     * de uma transação, senão o driver do Postgres carrega tudo de uma vez.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p WHERE (:shopId IS NULL OR p.shop.id = :shopId) "
+            + "AND (:category IS NULL OR p.category = :category)")
+    Stream<Product> streamForExport(@Param("shopId") UUID shopId, @Param("category") String category);
+
+    @Query("SELECT p.shop.id FROM Product p WHERE p.id = :id")
+    Optional<UUID> findShopIdById(@Param("id") UUID id);
+
+    @Query("SELECT p.id FROM Product p WHERE p.shop.id = :shopId")
+    List<UUID> findIdsByShopId(@Param("shopId") UUID shopId);
+
 }
@@ -0,0 +1,82 @@
+package com.oktech.boasaude.repository;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Totais aproximados para as listagens paginadas, sem um SELECT count(*) por
+ * requisição. Tabelas inteiras usam a estimativa do planner
+ * (pg_class.reltuples); contagens filtradas (por loja, por usuário) são
+ * contadas de fato e mantidas em cache por um TTL curto.
+ *
+ * @author Arlindo Neto
+ * @version 1.0
+ */
+@Component
+public class RowCountEstimator {
+
+    public static final String CACHE_NAME = "approximateCounts";
+
+    private static final Logger logger = LoggerFactory.getLogger(RowCountEstimator.class);
+
+    private static final String RELTUPLES_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Cache<String, Long> cache;
+
+    public RowCountEstimator(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${pagination.count-cache.max-size:10000}") long maxSize,
+            @Value("${pagination.count-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Estimativa do número de linhas de uma tabela inteira.
+     *
+     * @param table      Nome da tabela.
+     * @param exactCount Contagem exata, usada se a tabela ainda não foi
+     *                   analisada pelo Postgres.
+     * @return Número aproximado de linhas.
+     */
+    public long estimateTable(String table, LongSupplier exactCount) {
+        return cache.get("table:" + table, key -> {
+            Long estimate = jdbcTemplate.query(RELTUPLES_SQL, rs -> rs.next() ? rs.getLong(1) : null, table);
+            // reltuples é -1 (ou 0 em versões antigas) antes do primeiro ANALYZE
+            if (estimate == null || estimate <= 0) {
+                logger.debug("No planner statistics for table {}, counting rows", table);
+                return exactCount.getAsLong();
+            }
+            return estimate;
+        });
+    }
+
+    /**
+     * Contagem exata de um filtro, reaproveitada até o TTL expirar.
+     *
+     * @param key        Identifica o filtro (ex.: "products:shop:{id}").
+     * @param exactCount Consulta de contagem.
+     * @return Contagem possivelmente defasada em até um TTL.
+     */
+    public long cachedCount(String key, LongSupplier exactCount) {
+        return cache.get(key, k -> exactCount.getAsLong());
+    }
+}
@@ -1,7 +1,14 @@
 package com.oktech.boasaude.repository;
 
+import com.oktech.boasaude.dto.ShopResponseDto;
 import com.oktech.boasaude.entity.Shop;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +22,10 @@ import java.util.UUID;
  * @version 1.0
  */
 
-public interface ShopRepository extends JpaRepository<Shop, UUID> {
+public interface ShopRepository extends JpaRepository<Shop, UUID>, JpaSpecificationExecutor<Shop> {
+
+    String SELECT_RESPONSE = "SELECT new com.oktech.boasaude.dto.ShopResponseDto(s.id, s.name, s.description, s.cnpj) "
+            + "FROM Shop s";
 
     Optional<Shop> findByCnpj(String cnpj); // Busca loja por CNPJ
 
@@ -23,6 +33,18 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
 
     boolean existsByCnpj(String cnpj); // Verifica se já existe uma loja com o mesmo CNPJ
 
+    boolean existsByIdAndOwnerId(UUID id, UUID ownerId); // Verifica a posse da loja sem carregar o proprietário
+
+    // Projeções direto no DTO de resposta, sem carregar entidades gerenciadas
+    @Query(value = SELECT_RESPONSE, countQuery = "SELECT count(s) FROM Shop s")
+    Page<ShopResponseDto> findAllResponses(Pageable pageable);
+
+    @Query(SELECT_RESPONSE)
+    Slice<ShopResponseDto> findResponseSlice(Pageable pageable); // Lista lojas sem executar count(*)
+
+    @Query(SELECT_RESPONSE + " WHERE s.owner.id = :ownerId")
+    Optional<ShopResponseDto> findResponseByOwnerId(@Param("ownerId") UUID ownerId);
+
     List<Shop> findAllByNameContainingIgnoreCase(String name); // Busca lojas por nome, ignorando maiúsculas e
                                                                // minúsculas
 
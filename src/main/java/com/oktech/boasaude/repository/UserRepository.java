@@ -5,6 +5,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.entity.UserRole;
@@ -28,4 +32,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findAllByRole(UserRole role);
 
+    /**
+     * Atualiza apenas o hash da senha, sem carregar a entidade.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
 }
@@ -3,6 +3,7 @@ package com.oktech.boasaude.service;
 import java.util.List;
 import java.util.UUID;
 
+import com.oktech.boasaude.dto.CreateOrderItemDto;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.OrderItem;
 
@@ -20,6 +21,8 @@ public interface OrderItemService {
 
     OrderItem addOrderItem(Order order, UUID productId, int quantity);
 
+    List<OrderItem> addOrderItems(Order order, List<CreateOrderItemDto> lines);
+
     OrderItem updateOrderItem(UUID orderItemId, int quantity);
 
     void deleteOrderItem(UUID orderItemId);
@@ -2,8 +2,15 @@ package com.oktech.boasaude.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import com.oktech.boasaude.dto.BulkOrderStatusUpdateDto;
 import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.IdempotentResponse;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.dto.OrderStatusUpdateResultDto;
+import com.oktech.boasaude.dto.OrderSummaryDto;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.User;
 
@@ -22,12 +29,26 @@ import java.util.UUID;
 public interface OrderService {
     Order createOrder(User currentUser, List<CreateOrderItemDto> orderItems); // Cria um novo pedido associado ao usuário);
 
-    Order updateOrderStatus(UUID orderId, String status, User currentUser); // Atualiza o status de um pedido
+    IdempotentResponse<OrderResponseDto> createOrder(User currentUser, List<CreateOrderItemDto> orderItems,
+            String idempotencyKey); // Repetições com a mesma chave devolvem a resposta gravada
+
+    Order updateOrderStatus(UUID orderId, String status, User currentUser); // O comprador só pode cancelar o pedido
+
+    List<OrderStatusUpdateResultDto> updateShopOrdersStatus(UUID shopId, BulkOrderStatusUpdateDto dto,
+            User currentUser); // Muda o status de vários pedidos da loja de uma vez
 
     Order getOrderById(UUID orderId, User currentUser);
 
     Page<Order> getOrdersByUserId(Pageable pageable, User currentUser); // Lista os pedidos de um usuário com paginação
 
+    Slice<Order> getOrdersSliceByUserId(Pageable pageable, User currentUser); // Lista os pedidos sem count(*)
+
+    Slice<OrderSummaryDto> getOrderSummariesByUserId(Pageable pageable, User currentUser); // Só a tabela orders
+
+    long estimateOrderCountByUserId(User currentUser); // Total de pedidos do usuário, em cache
+
+    CursorPage<Order> getOrdersByUserIdAndCursor(String cursor, int size, User currentUser); // Paginação por cursor
+
     void deleteOrder(UUID orderId, User currentUser);
 }
 
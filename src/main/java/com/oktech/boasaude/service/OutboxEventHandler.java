@@ -0,0 +1,29 @@
+package com.oktech.boasaude.service;
+
+import com.oktech.boasaude.repository.OutboxRepository.OutboxEvent;
+
+/**
+ * Consumidor em processo dos eventos da outbox. Qualquer bean que implemente
+ * esta interface passa a receber os eventos dos tipos que declara.
+ * A entrega é pelo menos uma vez: se um handler falhar, o evento volta para
+ * todos os handlers na próxima tentativa, então handle deve ser idempotente.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * @param eventType Tipo do evento, por exemplo "order.created".
+     * @return true se este handler consome o tipo.
+     */
+    boolean supports(String eventType);
+
+    /**
+     * Processa o evento. Roda na thread do dispatcher, com o lote travado;
+     * trabalho demorado deve ser repassado para outra fila.
+     *
+     * @throws Exception para que o evento seja reenviado mais tarde.
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
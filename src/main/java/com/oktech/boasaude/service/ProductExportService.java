@@ -0,0 +1,25 @@
+package com.oktech.boasaude.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * ProductExportService exporta o catálogo de produtos em NDJSON, um produto
+ * por linha, lendo do banco em streaming.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+public interface ProductExportService {
+
+    /**
+     * Escreve os produtos no destino, sem acumulá-los em memória.
+     *
+     * @param shopId   Filtra pela loja, se informado.
+     * @param category Filtra pela categoria, se informada.
+     * @param output   Destino do NDJSON; não é fechado.
+     * @return Quantidade de produtos exportados.
+     */
+    long exportProducts(UUID shopId, String category, OutputStream output) throws IOException;
+}
@@ -0,0 +1,35 @@
+package com.oktech.boasaude.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+import com.oktech.boasaude.dto.ProductImportResultDto;
+import com.oktech.boasaude.entity.User;
+
+/**
+ * ProductImportService cadastra produtos em lote a partir de um arquivo CSV ou
+ * NDJSON, lido linha a linha, sem carregar o arquivo inteiro em memória.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+public interface ProductImportService {
+
+    enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Importa os produtos do arquivo para a loja. Linhas inválidas são
+     * recusadas individualmente e não interrompem a importação.
+     *
+     * @param shopId      ID da loja que receberá os produtos.
+     * @param input       Corpo da requisição, em UTF-8.
+     * @param format      Formato do arquivo.
+     * @param currentUser Usuário que está importando; precisa ser o dono da loja.
+     * @return Totais e erros por linha.
+     */
+    ProductImportResultDto importProducts(UUID shopId, InputStream input, Format format, User currentUser)
+            throws IOException;
+}
@@ -0,0 +1,30 @@
+package com.oktech.boasaude.service;
+
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.oktech.boasaude.entity.Product;
+
+/**
+ * ProductSearchService mantém o índice de busca textual de produtos e
+ * responde às buscas por nome, descrição e categoria.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+public interface ProductSearchService {
+
+    /**
+     * Busca produtos ordenados por relevância. A ordenação do Pageable é
+     * ignorada.
+     */
+    Page<Product> search(String query, Pageable pageable);
+
+    void index(Product product);
+
+    void remove(UUID productId);
+
+    void rebuild();
+}
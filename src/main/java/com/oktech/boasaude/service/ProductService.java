@@ -1,11 +1,20 @@
 package com.oktech.boasaude.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import com.oktech.boasaude.dto.BulkProductUpdateDto;
+import com.oktech.boasaude.dto.CategoryFacetsDto;
 import com.oktech.boasaude.dto.CreateProductDto;
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.ProductQueryDto;
+import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.Product;
 import com.oktech.boasaude.entity.User;
 
@@ -26,12 +35,47 @@ public interface ProductService {
 
     Product getProductById(UUID id);
 
-    Page<Product> getAllProducts(Pageable pageable);
+    List<Product> getProductsByIds(Collection<UUID> ids); // Uma única consulta; IDs inexistentes ficam de fora
 
-    Product updateProduct(UUID id, CreateProductDto product, User currentUser);
+    Page<ProductResponseDto> getAllProducts(Pageable pageable); // Projeção direto no DTO
+
+    Product updateProduct(UUID id, CreateProductDto product, Long expectedVersion, User currentUser);
 
     void deleteProduct(UUID id, User currentUser);
 
-    Page<Product> getProductsByShopId(UUID shopId, Pageable pageable);
+    int bulkUpdateProducts(UUID shopId, BulkProductUpdateDto dto, User currentUser); // Preço e estoque em lote
+
+    void reserveStock(List<OrderItem> items); // Baixa condicional, na transação do pedido
+
+    long startFlashSale(UUID id, User currentUser); // Estoque passa para contadores em memória
+
+    void endFlashSale(UUID id, User currentUser);
+
+    Page<ProductResponseDto> getProductsByShopId(UUID shopId, Pageable pageable);
+
+    Slice<ProductResponseDto> getAllProductsSlice(Pageable pageable); // Sem count(*)
+
+    Slice<ProductResponseDto> getProductsSliceByShopId(UUID shopId, Pageable pageable);
+
+    Slice<ProductResponseDto> getProductsByFilter(String category, UUID shopId, Integer minPrice, Integer maxPrice,
+            Pageable pageable); // Categoria, loja e faixa de preço
+
+    Slice<ProductResponseDto> queryProducts(ProductQueryDto criteria, Pageable pageable); // Ordenações com índice
+
+    CategoryFacetsDto getCategoryFacets(UUID shopId); // Produtos por categoria, sem GROUP BY
+
+    long countProductsByCategory(UUID shopId, String category);
+
+    long estimateProductCount(); // Total aproximado de produtos
+
+    long estimateProductCountByShopId(UUID shopId);
+
+    String getCatalogVersion(); // Versão da listagem de produtos, usada no ETag
+
+    String getShopCatalogVersion(UUID shopId); // Versão dos produtos de uma loja
+
+    CursorPage<Product> getProductsByCursor(String cursor, int size); // Paginação por cursor (createdAt, id)
+
+    CursorPage<Product> getProductsByShopIdAndCursor(UUID shopId, String cursor, int size);
 
 }
@@ -1,5 +1,6 @@
 package com.oktech.boasaude.service;
 
+import com.oktech.boasaude.dto.CursorPage;
 import com.oktech.boasaude.dto.ShopResponseDto;
 import com.oktech.boasaude.entity.Shop;
 import com.oktech.boasaude.entity.User;
@@ -8,6 +9,7 @@ import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import com.oktech.boasaude.dto.ShopCreateRequestDto;
 
@@ -25,5 +27,15 @@ public interface ShopService {
 
     Page<ShopResponseDto> getAllShops(Pageable pageable); // Obtém todas as lojas
 
+    Slice<ShopResponseDto> getAllShopsSlice(Pageable pageable); // Lista lojas sem count(*)
+
+    long estimateShopCount(); // Total aproximado de lojas
+
+    String getShopsVersion(); // Versão da listagem de lojas, usada no ETag
+
+    CursorPage<ShopResponseDto> getShopsByCursor(String cursor, int size); // Lojas paginadas por cursor
+
     Shop getShopById(UUID id);
+
+    boolean isShopOwner(UUID shopId, User user); // Verifica se o usuário é dono da loja
 }
\ No newline at end of file
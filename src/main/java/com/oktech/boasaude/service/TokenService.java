@@ -1,8 +1,13 @@
 package com.oktech.boasaude.service;
 
+import java.util.List;
 import java.util.UUID;
 
+import org.springframework.security.core.GrantedAuthority;
+
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.oktech.boasaude.config.security.UserPrincipal;
+import com.oktech.boasaude.dto.TokenResponse;
 
 public interface TokenService {
     /**
@@ -13,6 +18,25 @@ public interface TokenService {
      */
     String generateToken(String name);
 
+    /**
+     * Issues a short-lived access token and a refresh token for the user.
+     *
+     * @param email the email of the authenticated user
+     * @return the access and refresh tokens
+     */
+    TokenResponse issueTokens(String email);
+
+    /**
+     * Exchanges a valid refresh token for a new access/refresh token pair.
+     * The refresh token used is revoked (rotation).
+     *
+     * @param refreshToken the refresh token received on login or last refresh
+     * @return the new access and refresh tokens
+     * @throws IllegalArgumentException if the refresh token is invalid, revoked
+     *                                  or belongs to an inactive account
+     */
+    TokenResponse refreshTokens(String refreshToken);
+
     /**
      * Decodes the provided JWT token and returns its decoded representation.
      *
@@ -23,10 +47,44 @@ public interface TokenService {
 
     /**
      * Extracts the user ID from the JWT token.
-     * 
+     *
      * @param token the JWT token from which the user ID will be extracted
      * @return the user ID as UUID, or null if extraction fails
      */
     public UUID getUserIdFromToken(String token);
 
+    /**
+     * Builds the principal from the typed claims of a verified token.
+     * The role is null for tokens issued without typed claims.
+     *
+     * @param decodedJWT the verified token
+     * @return the principal, or null if the token has no valid userId claim
+     */
+    UserPrincipal getPrincipalFromToken(DecodedJWT decodedJWT);
+
+    /**
+     * Reads the authorities from the roles list claim.
+     *
+     * @param decodedJWT the verified token
+     * @return the authorities, empty if the claim is absent
+     */
+    List<GrantedAuthority> getAuthoritiesFromToken(DecodedJWT decodedJWT);
+
+    /**
+     * Indicates whether the token is a refresh token, which must not be
+     * accepted as an access token.
+     *
+     * @param decodedJWT the verified token
+     * @return true for refresh tokens
+     */
+    boolean isRefreshToken(DecodedJWT decodedJWT);
+
+    /**
+     * Replaces the signing secret, rebuilding the algorithm and verifier and
+     * discarding every token verified with the previous secret.
+     *
+     * @param secret the new HMAC secret
+     */
+    void reloadSecret(String secret);
+
 }
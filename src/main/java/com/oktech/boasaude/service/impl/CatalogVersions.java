@@ -0,0 +1,174 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.repository.CatalogVersionRepository;
+import com.oktech.boasaude.repository.CatalogVersionRepository.Changes;
+
+/**
+ * Versões do catálogo (produtos, produtos por loja e lojas), base dos ETags
+ * das listagens, permitindo responder 304 sem executar a consulta.
+ * As versões ficam na tabela catalog_versions, então todas as instâncias
+ * geram o mesmo ETag para a mesma listagem. Uma escrita não vai ao banco na
+ * hora: ela marca o escopo localmente (o token desta instância muda na hora)
+ * e a sincronização periódica publica as marcas com um UPDATE por escopo e lê
+ * as versões publicadas pelas outras instâncias. Uma alteração feita em outra
+ * instância aparece aqui em até catalog.etag.sync-interval-ms.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class CatalogVersions {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersions.class);
+
+    private static final String PRODUCTS = "products";
+
+    private static final String SHOPS = "shops";
+
+    private static final String SHOP_PRODUCTS = "shop-products:";
+
+    /**
+     * A leitura incremental volta um pouco no tempo, para não perder uma
+     * versão gravada por uma transação que terminou depois da última leitura.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private final CatalogVersionRepository repository;
+
+    /**
+     * Última versão conhecida de cada escopo na tabela.
+     */
+    private final Map<String, Long> shared = new ConcurrentHashMap<>();
+
+    /**
+     * Escritas desta instância ainda não publicadas, por escopo.
+     */
+    private final Map<String, AtomicLong> unpublished = new ConcurrentHashMap<>();
+
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private LocalDateTime lastRefresh;
+
+    public CatalogVersions(CatalogVersionRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Versão da listagem geral de produtos.
+     */
+    public String products() {
+        return token(PRODUCTS);
+    }
+
+    /**
+     * Versão da listagem de produtos de uma loja.
+     */
+    public String shopProducts(UUID shopId) {
+        return token(SHOP_PRODUCTS + shopId);
+    }
+
+    /**
+     * Versão da listagem de lojas.
+     */
+    public String shops() {
+        return token(SHOPS);
+    }
+
+    /**
+     * Registra a criação, alteração ou exclusão de um produto da loja.
+     */
+    public void productChanged(UUID shopId) {
+        changed(PRODUCTS);
+        if (shopId != null) {
+            changed(SHOP_PRODUCTS + shopId);
+        }
+    }
+
+    /**
+     * Registra a criação ou alteração de uma loja.
+     */
+    public void shopChanged() {
+        changed(SHOPS);
+    }
+
+    /**
+     * Registra a exclusão de uma loja, que também remove seus produtos.
+     */
+    public void shopDeleted(UUID shopId) {
+        shopChanged();
+        productChanged(shopId);
+    }
+
+    /**
+     * Publica as escritas locais e lê as versões das outras instâncias.
+     */
+    @Scheduled(fixedDelayString = "${catalog.etag.sync-interval-ms:1000}")
+    public void sync() {
+        publish();
+        refresh();
+    }
+
+    private void publish() {
+        Map<String, Long> taken = new HashMap<>();
+        unpublished.forEach((scope, count) -> {
+            long value = count.get();
+            if (value > 0) {
+                taken.put(scope, value);
+            }
+        });
+        if (taken.isEmpty()) {
+            return;
+        }
+        try {
+            // A versão nova entra antes de as marcas saírem, então o token nunca
+            // volta a um valor já servido
+            repository.bump(taken.keySet()).forEach((scope, version) -> shared.merge(scope, version, Math::max));
+            taken.forEach((scope, value) -> unpublished.get(scope).addAndGet(-value));
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish catalog versions for {} scopes, will retry", taken.size(), e);
+        }
+    }
+
+    private void refresh() {
+        try {
+            Changes changes = repository.findChangedSince(
+                    lastRefresh == null ? null : lastRefresh.minus(REFRESH_OVERLAP));
+            changes.versions().forEach((scope, version) -> shared.merge(scope, version, Math::max));
+            if (changes.latest() != null) {
+                lastRefresh = changes.latest();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not read catalog versions, will retry", e);
+        }
+    }
+
+    private void changed(String scope) {
+        unpublished.computeIfAbsent(scope, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Com escritas locais não publicadas o token leva a identificação da
+     * instância: outra instância com escritas próprias sobre a mesma versão
+     * não gera o mesmo token para um conteúdo diferente.
+     */
+    private String token(String scope) {
+        long version = shared.getOrDefault(scope, 0L);
+        AtomicLong local = unpublished.get(scope);
+        long pending = local == null ? 0 : local.get();
+        return pending == 0 ? Long.toString(version) : version + "." + instanceId + "." + pending;
+    }
+}
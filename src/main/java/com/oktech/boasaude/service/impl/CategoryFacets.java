@@ -0,0 +1,190 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.repository.CategoryCount;
+import com.oktech.boasaude.repository.ProductRepository;
+
+/**
+ * Contagem de produtos por categoria, geral e por loja, mantida em memória.
+ * As escritas de produto ajustam as contagens incrementalmente, então as
+ * requisições de facetas não fazem GROUP BY sobre products. Um GROUP BY
+ * completo só roda na inicialização e periodicamente, para corrigir desvios
+ * (por exemplo, alterações feitas por outra instância).
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class CategoryFacets {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryFacets.class);
+
+    private static final Comparator<Map.Entry<String, Long>> BY_COUNT = Map.Entry.<String, Long>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private final ProductRepository productRepository;
+
+    private volatile Counts counts = new Counts();
+
+    /**
+     * Contagens em reconstrução; recebem as mesmas alterações das contagens
+     * ativas. Protegido por this.
+     */
+    private Counts rebuilding;
+
+    public CategoryFacets(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public void productAdded(UUID shopId, String category) {
+        adjust(shopId, category, 1);
+    }
+
+    public void productRemoved(UUID shopId, String category) {
+        adjust(shopId, category, -1);
+    }
+
+    public void categoryChanged(UUID shopId, String previous, String current) {
+        if (!Objects.equals(previous, current)) {
+            adjust(shopId, previous, -1);
+            adjust(shopId, current, 1);
+        }
+    }
+
+    /**
+     * Remove as contagens de uma loja excluída (os produtos saem em cascata).
+     */
+    public synchronized void shopDeleted(UUID shopId) {
+        counts.removeShop(shopId);
+        if (rebuilding != null) {
+            rebuilding.removeShop(shopId);
+        }
+    }
+
+    /**
+     * Contagens por categoria, da maior para a menor.
+     *
+     * @param shopId Loja, ou null para o catálogo inteiro.
+     */
+    public Map<String, Long> counts(UUID shopId) {
+        Map<String, Long> source = shopId == null ? counts.global : counts.byShop.get(shopId);
+        if (source == null) {
+            return Map.of();
+        }
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        source.entrySet().stream()
+                .sorted(BY_COUNT)
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Quantidade de produtos da categoria.
+     *
+     * @param shopId   Loja, ou null para o catálogo inteiro.
+     * @param category Categoria, ou null para todas.
+     */
+    public long count(UUID shopId, String category) {
+        Map<String, Long> source = shopId == null ? counts.global : counts.byShop.get(shopId);
+        if (source == null) {
+            return 0;
+        }
+        if (category == null) {
+            return source.values().stream().mapToLong(Long::longValue).sum();
+        }
+        return source.getOrDefault(category, 0L);
+    }
+
+    /**
+     * Recalcula as contagens com um GROUP BY e troca as contagens ativas ao
+     * final.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${products.facets.rebuild-interval-ms:600000}",
+            initialDelayString = "${products.facets.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        Counts building = new Counts();
+        synchronized (this) {
+            if (rebuilding != null) {
+                return;
+            }
+            rebuilding = building;
+        }
+
+        try {
+            List<CategoryCount> rows = productRepository.countByShopAndCategory();
+            synchronized (this) {
+                for (CategoryCount row : rows) {
+                    building.add(row.shopId(), row.category(), row.count());
+                }
+                counts = building;
+            }
+            logger.info("Category facets rebuilt: {} categories in {} shops",
+                    building.global.size(), building.byShop.size());
+        } catch (RuntimeException e) {
+            logger.error("Category facets rebuild failed, keeping the previous counts", e);
+        } finally {
+            synchronized (this) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    private synchronized void adjust(UUID shopId, String category, long delta) {
+        if (shopId == null || category == null) {
+            return;
+        }
+        counts.add(shopId, category, delta);
+        if (rebuilding != null) {
+            rebuilding.add(shopId, category, delta);
+        }
+    }
+
+    /**
+     * Só é alterado sob o monitor de CategoryFacets; as leituras são livres.
+     */
+    private static final class Counts {
+
+        private final Map<String, Long> global = new ConcurrentHashMap<>();
+
+        private final Map<UUID, Map<String, Long>> byShop = new ConcurrentHashMap<>();
+
+        void add(UUID shopId, String category, long delta) {
+            merge(global, category, delta);
+            Map<String, Long> shop = byShop.computeIfAbsent(shopId, id -> new ConcurrentHashMap<>());
+            merge(shop, category, delta);
+            if (shop.isEmpty()) {
+                byShop.remove(shopId);
+            }
+        }
+
+        void removeShop(UUID shopId) {
+            Map<String, Long> shop = byShop.remove(shopId);
+            if (shop != null) {
+                shop.forEach((category, count) -> merge(global, category, -count));
+            }
+        }
+
+        private static void merge(Map<String, Long> map, String category, long delta) {
+            map.compute(category, (key, current) -> {
+                long updated = (current == null ? 0 : current) + delta;
+                return updated > 0 ? updated : null;
+            });
+        }
+    }
+}
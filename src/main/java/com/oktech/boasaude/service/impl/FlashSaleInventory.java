@@ -0,0 +1,361 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import com.oktech.boasaude.repository.ProductBulkRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Estoque em memória dos produtos em modo flash sale. Para esses produtos a
+ * reserva do pedido não toca a linha de products: desconta de um
+ * {@link StripedStock}, e as baixas confirmadas se acumulam até o flush
+ * periódico, que as grava em products.stock num único batch.
+ * O saldo em memória é carregado do banco quando a venda começa, e a venda
+ * fica marcada em products.flash_sale_owner com o identificador desta
+ * instância: as demais recusam reservas e mudanças de estoque do produto até
+ * a marca sair. Baixas de produtos cuja venda terminou ficam numa fila de
+ * retentativa, e a marca só sai depois de gravadas; tudo o que estiver
+ * pendente é gravado no encerramento da aplicação. Marcas deixadas por uma
+ * execução anterior da instância (mesmo identificador) são removidas na
+ * subida, e o produto volta a ser reservado pelo banco.
+ * Se o estoque tiver sido alterado por fora durante a venda, a baixa que não
+ * couber zera o estoque e as unidades excedentes são registradas no log e em
+ * flash.sale.oversold.units.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class FlashSaleInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleInventory.class);
+
+    private final Map<UUID, HotProduct> products = new ConcurrentHashMap<>();
+
+    /**
+     * Produtos que saíram do modo com baixas ainda não gravadas.
+     */
+    private final Map<UUID, HotProduct> retired = new ConcurrentHashMap<>();
+
+    private final ProductBulkRepository productBulkRepository;
+
+    private final ProductSnapshotCache productCache;
+
+    private final int stripes;
+
+    private final String instanceId;
+
+    private final Counter oversold;
+
+    public FlashSaleInventory(ProductBulkRepository productBulkRepository, ProductSnapshotCache productCache,
+            MeterRegistry meterRegistry,
+            @Value("${products.flash-sale.stripes:16}") int stripes,
+            @Value("${products.flash-sale.instance-id:${HOSTNAME:${random.uuid}}}") String instanceId) {
+        this.productBulkRepository = productBulkRepository;
+        this.productCache = productCache;
+        this.stripes = stripes;
+        this.instanceId = instanceId;
+        this.oversold = Counter.builder("flash.sale.oversold.units")
+                .description("Units written by a flash sale beyond the stock in products.stock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identificador gravado em products.flash_sale_owner pelas vendas desta
+     * instância.
+     */
+    public String instanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Remove as marcas de venda deixadas por uma execução anterior desta
+     * instância, cujo saldo em memória se perdeu.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void releaseStaleSales() {
+        int released = productBulkRepository.releaseFlashSales(instanceId);
+        if (released > 0) {
+            logger.warn("Released {} flash sales left by a previous run of instance {}", released, instanceId);
+        }
+    }
+
+    public boolean isHot(UUID productId) {
+        return products.containsKey(productId);
+    }
+
+    /**
+     * Coloca o produto em modo flash sale com o estoque informado. Se ele já
+     * estiver no modo, mantém o saldo atual.
+     *
+     * @return O saldo em memória.
+     */
+    public long start(UUID productId, int stock) {
+        return products.computeIfAbsent(productId, id -> new HotProduct(id, new StripedStock(stock, stripes)))
+                .stock.available();
+    }
+
+    /**
+     * Tira o produto do modo flash sale e grava as baixas pendentes. Reservas
+     * ainda em andamento são gravadas direto ao serem confirmadas.
+     *
+     * @return false se o produto não estava no modo.
+     */
+    public boolean end(UUID productId) {
+        HotProduct product = products.remove(productId);
+        if (product == null) {
+            return false;
+        }
+        product.retired = true;
+        retired.put(productId, product);
+        flush(Map.of(productId, product));
+        releaseIfWritten(productId, product);
+        return true;
+    }
+
+    /**
+     * Reserva em memória as quantidades dos produtos em modo flash sale;
+     * os demais são ignorados e ficam para a reserva no banco.
+     *
+     * @param quantities Quantidade por produto.
+     * @return A reserva, a ser confirmada depois do commit ou cancelada.
+     * @throws IllegalArgumentException se algum produto não tiver saldo; nesse
+     *         caso nada fica reservado.
+     */
+    public Reservation reserve(Map<UUID, Integer> quantities) {
+        Map<HotProduct, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            HotProduct product = products.get(entry.getKey());
+            if (product == null) {
+                continue;
+            }
+            if (!product.stock.tryReserve(entry.getValue())) {
+                taken.forEach((held, quantity) -> held.stock.release(quantity));
+                throw new IllegalArgumentException("Insufficient stock for product: " + entry.getKey());
+            }
+            taken.put(product, entry.getValue());
+        }
+        return new Reservation(taken);
+    }
+
+    /**
+     * Prepara a devolução, aos produtos em modo flash sale, das unidades de
+     * pedidos cancelados; os demais são ignorados e voltam pela linha.
+     *
+     * @param quantities Quantidade por produto.
+     * @return A devolução, a ser confirmada depois do commit.
+     */
+    public Release release(Map<UUID, Integer> quantities) {
+        Map<HotProduct, Integer> given = new LinkedHashMap<>();
+        quantities.forEach((id, quantity) -> {
+            HotProduct product = products.get(id);
+            if (product != null) {
+                given.put(product, quantity);
+            }
+        });
+        return new Release(given);
+    }
+
+    /**
+     * Grava no banco as baixas confirmadas desde o último flush.
+     */
+    @Scheduled(fixedDelayString = "${products.flash-sale.flush-interval-ms:200}")
+    public void flush() {
+        if (!products.isEmpty()) {
+            flush(products);
+        }
+        if (!retired.isEmpty()) {
+            flush(retired);
+            retired.forEach(this::releaseIfWritten);
+        }
+    }
+
+    /**
+     * Grava as baixas pendentes antes de a aplicação parar, para que pedidos
+     * já confirmados não fiquem sem baixa no banco.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        products.forEach((id, product) -> {
+            if (products.remove(id, product)) {
+                product.retired = true;
+                retired.put(id, product);
+            }
+        });
+        retired.forEach(this::releaseIfWritten);
+        long unsaved = products.values().stream().mapToLong(product -> Math.abs(product.pending.sum())).sum()
+                + retired.values().stream().mapToLong(product -> Math.abs(product.pending.sum())).sum();
+        if (unsaved > 0) {
+            logger.error("Shutting down with {} flash sale units not written to products.stock", unsaved);
+        }
+    }
+
+    /**
+     * Tira da fila de retentativa e desmarca a venda de um produto que não
+     * tem mais nada pendente; uma confirmação posterior coloca o produto de
+     * volta na fila. Uma venda nova do mesmo produto nesta instância mantém
+     * a marca.
+     */
+    private void releaseIfWritten(UUID productId, HotProduct product) {
+        if (product.pending.sum() != 0) {
+            return;
+        }
+        try {
+            if (!products.containsKey(productId)) {
+                productBulkRepository.releaseFlashSale(productId, instanceId);
+            }
+            retired.remove(productId, product);
+        } catch (RuntimeException e) {
+            logger.error("Could not release flash sale of product {}, will retry", productId, e);
+        }
+    }
+
+    private void flush(Map<UUID, HotProduct> source) {
+        Map<UUID, Integer> decrements = new HashMap<>();
+        Map<UUID, HotProduct> flushed = new HashMap<>();
+        source.forEach((id, product) -> {
+            long pending = product.pending.sumThenReset();
+            if (pending != 0) {
+                decrements.put(id, Math.toIntExact(pending));
+                flushed.put(id, product);
+            }
+        });
+        if (decrements.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<UUID, Integer> beyondStock = productBulkRepository.applyStockDecrements(decrements,
+                    LocalDateTime.now());
+            decrements.keySet().forEach(productCache::invalidate);
+            beyondStock.forEach((id, units) -> {
+                oversold.increment(units);
+                logger.error("Flash sale of product {} sold {} units beyond products.stock", id, units);
+            });
+        } catch (RuntimeException e) {
+            // As baixas voltam para a fila e entram no próximo flush; produtos
+            // que já saíram do modo ficam na fila de retentativa
+            flushed.forEach((id, product) -> {
+                product.pending.add(decrements.get(id));
+                if (product.retired) {
+                    retired.put(id, product);
+                }
+            });
+            logger.error("Flash sale stock flush failed for {} products, will retry", decrements.size(), e);
+        }
+    }
+
+    /**
+     * Unidades tiradas das faixas por um pedido ainda não confirmado.
+     */
+    public final class Reservation {
+
+        private final Map<HotProduct, Integer> taken;
+
+        private Reservation(Map<HotProduct, Integer> taken) {
+            this.taken = taken;
+        }
+
+        public Set<UUID> productIds() {
+            Set<UUID> ids = new HashSet<>();
+            taken.keySet().forEach(product -> ids.add(product.id));
+            return ids;
+        }
+
+        /**
+         * Pedido gravado: as unidades entram na fila do flush. Se a venda já
+         * terminou, a baixa é gravada na hora.
+         */
+        public void confirm() {
+            taken.forEach((product, quantity) -> {
+                product.pending.add(quantity);
+                if (product.retired) {
+                    retired.put(product.id, product);
+                    flush(Map.of(product.id, product));
+                }
+            });
+        }
+
+        /**
+         * Pedido desfeito: as unidades voltam para as faixas.
+         */
+        public void cancel() {
+            taken.forEach((product, quantity) -> product.stock.release(quantity));
+        }
+    }
+
+    /**
+     * Unidades de pedidos cancelados a devolver às faixas.
+     */
+    public final class Release {
+
+        private final Map<HotProduct, Integer> given;
+
+        private Release(Map<HotProduct, Integer> given) {
+            this.given = given;
+        }
+
+        public Set<UUID> productIds() {
+            Set<UUID> ids = new HashSet<>();
+            given.keySet().forEach(product -> ids.add(product.id));
+            return ids;
+        }
+
+        /**
+         * Cancelamento gravado: as unidades voltam para as faixas e entram na
+         * fila do flush como uma baixa negativa, já que a baixa do pedido foi
+         * ou será gravada em products.stock. Se a venda já terminou, o
+         * produto volta para a fila de retentativa.
+         */
+        public void confirm() {
+            given.forEach((product, quantity) -> {
+                product.stock.release(quantity);
+                product.pending.add(-quantity);
+                if (product.retired) {
+                    retired.put(product.id, product);
+                }
+            });
+        }
+    }
+
+    private static final class HotProduct {
+
+        private final UUID id;
+
+        private final StripedStock stock;
+
+        /**
+         * Baixas confirmadas ainda não gravadas em products.stock, já
+         * descontadas as devoluções de pedidos cancelados.
+         */
+        private final LongAdder pending = new LongAdder();
+
+        private volatile boolean retired;
+
+        HotProduct(UUID id, StripedStock stock) {
+            this.id = id;
+            this.stock = stock;
+        }
+    }
+}
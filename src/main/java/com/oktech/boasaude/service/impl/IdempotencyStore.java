@@ -0,0 +1,245 @@
+package com.oktech.boasaude.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oktech.boasaude.config.exception.IdempotencyKeyInProgressException;
+import com.oktech.boasaude.dto.IdempotentResponse;
+import com.oktech.boasaude.repository.IdempotencyKeyRepository;
+import com.oktech.boasaude.repository.IdempotencyKeyRepository.StoredKey;
+
+/**
+ * Deduplicação de requisições por Idempotency-Key, escopada por usuário.
+ * Um mapa em memória com TTL atende as repetições na mesma instância: a
+ * segunda requisição com a chave espera o resultado da primeira, em vez de
+ * competir com ela. A tabela idempotency_keys garante o mesmo entre
+ * instâncias e depois de um restart; a resposta é gravada na mesma transação
+ * da operação, então não existe pedido criado sem resposta registrada.
+ * A mesma chave com outro corpo de requisição é recusada.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private record Entry(String requestHash, String responseBody, boolean replayed) {
+    }
+
+    private final IdempotencyKeyRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, CompletableFuture<Entry>> local;
+
+    private final Duration ttl;
+
+    private final long waitTimeoutMs;
+
+    private final long claimTimeoutMs;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${orders.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${orders.idempotency.max-entries:10000}") long maxEntries,
+            @Value("${orders.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${orders.idempotency.claim-timeout-ms:60000}") long claimTimeoutMs) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Executa a operação uma única vez por chave.
+     *
+     * @param userId  Dono da chave.
+     * @param key     Valor do cabeçalho Idempotency-Key.
+     * @param request Corpo da requisição; a mesma chave só vale para o mesmo corpo.
+     * @param type    Tipo da resposta, para ler uma resposta gravada.
+     * @param action  Operação protegida. Roda numa transação que também grava
+     *                a resposta.
+     * @return A resposta, nova ou gravada por uma requisição anterior.
+     * @throws IllegalArgumentException se a chave for inválida ou já tiver sido
+     *         usada com outro corpo.
+     * @throws IdempotencyKeyInProgressException se outra requisição com a chave
+     *         não terminar dentro do tempo de espera.
+     */
+    public <T> IdempotentResponse<T> execute(UUID userId, String key, Object request, Class<T> type,
+            Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH
+                    + " characters.");
+        }
+        String requestHash = hash(request);
+        String localKey = userId + ":" + key;
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = local.asMap().putIfAbsent(localKey, mine);
+        if (existing != null) {
+            // Mesma chave já vista nesta instância: aguarda (ou reaproveita) o resultado
+            return toResponse(await(existing), requestHash, type, true);
+        }
+
+        try {
+            Entry entry = claimOrReplay(userId, key, requestHash, action);
+            mine.complete(entry);
+            return toResponse(entry, requestHash, type, entry.replayed());
+        } catch (RuntimeException e) {
+            local.asMap().remove(localKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Remove do banco as chaves mais antigas que o TTL.
+     */
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = repository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Entry claimOrReplay(UUID userId, String key, String requestHash, Supplier<?> action) {
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.claim(userId, key, requestHash, now, now.minus(Duration.ofMillis(claimTimeoutMs)))) {
+            return run(userId, key, requestHash, action);
+        }
+
+        // Outra requisição (talvez em outra instância) tem a chave
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            Optional<StoredKey> stored = repository.find(userId, key);
+            if (stored.isPresent() && stored.get().responseBody() != null) {
+                return new Entry(stored.get().requestHash(), stored.get().responseBody(), true);
+            }
+            if (stored.isEmpty()) {
+                // O dono falhou e liberou a chave: tenta de novo desde o início
+                now = LocalDateTime.now();
+                if (repository.claim(userId, key, requestHash, now, now.minus(Duration.ofMillis(claimTimeoutMs)))) {
+                    return run(userId, key, requestHash, action);
+                }
+            } else if (!stored.get().requestHash().equals(requestHash)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used with a different request.");
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw inProgress();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+        }
+    }
+
+    private Entry run(UUID userId, String key, String requestHash, Supplier<?> action) {
+        try {
+            String body = transactionTemplate.execute(status -> {
+                String json = toJson(action.get());
+                repository.complete(userId, key, json);
+                return json;
+            });
+            return new Entry(requestHash, body, false);
+        } catch (RuntimeException e) {
+            // Nada foi gravado; a chave volta a ficar livre para uma nova tentativa
+            repository.release(userId, key);
+            throw e;
+        }
+    }
+
+    private Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (ExecutionException | CancellationException e) {
+            // A requisição original falhou: a repetição recebe o mesmo erro
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> IdempotentResponse<T> toResponse(Entry entry, String requestHash, Class<T> type, boolean replayed) {
+        if (!entry.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used with a different request.");
+        }
+        try {
+            return new IdempotentResponse<>(objectMapper.readValue(entry.responseBody(), type), replayed);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not readable", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be serialized", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private IdempotencyKeyInProgressException inProgress() {
+        return new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed.",
+                RETRY_AFTER_SECONDS);
+    }
+}
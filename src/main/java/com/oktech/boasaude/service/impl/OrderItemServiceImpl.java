@@ -1,10 +1,16 @@
 package com.oktech.boasaude.service.impl;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.oktech.boasaude.dto.CreateOrderItemDto;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.Product;
@@ -46,10 +52,65 @@ public class OrderItemServiceImpl implements OrderItemService {
         Product product = productServiceImpl.getProductById(productId);
 
         OrderItem orderItem = new OrderItem(order, product, quantity);
+        order.addItem(orderItem);
 
         return orderItemRepository.save(orderItem);
     }
 
+    /**
+     * Monta os itens de um pedido novo a partir das linhas do carrinho.
+     * Linhas do mesmo produto são somadas e todos os produtos são carregados
+     * numa única consulta. O estoque é reservado na transação de quem chama,
+     * então uma falha desfaz as baixas. Os itens não são salvos aqui: entram
+     * no pedido e são inseridos em cascata, em batch, junto com ele.
+     * @param order O pedido que receberá os itens.
+     * @param lines As linhas do carrinho.
+     * @return Os itens criados, um por produto.
+     * @throws IllegalArgumentException se alguma linha for inválida, algum
+     *         produto não existir ou não tiver estoque suficiente.
+     */
+    @Override
+    public List<OrderItem> addOrderItems(Order order, List<CreateOrderItemDto> lines) {
+        Map<UUID, Integer> quantities = mergeLines(lines);
+
+        Map<UUID, Product> products = productServiceImpl.getProductsByIds(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<UUID> missing = quantities.keySet().stream()
+                .filter(id -> !products.containsKey(id))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Product not found with id: " + missing);
+        }
+
+        List<OrderItem> items = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> items.add(new OrderItem(order, products.get(productId), quantity)));
+        productServiceImpl.reserveStock(items);
+        items.forEach(order::addItem);
+        return items;
+    }
+
+    /**
+     * Valida as linhas e soma as quantidades repetidas de um mesmo produto,
+     * mantendo a ordem da primeira ocorrência.
+     */
+    static Map<UUID, Integer> mergeLines(List<CreateOrderItemDto> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Order must have at least one item.");
+        }
+
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderItemDto line : lines) {
+            if (line.productId() == null) {
+                throw new IllegalArgumentException("Product ID is required.");
+            }
+            if (line.quantity() == null || line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than zero.");
+            }
+            quantities.merge(line.productId(), line.quantity(), Math::addExact);
+        }
+        return quantities;
+    }
+
     /**
      * Obtém os itens de pedido associados a um pedido específico.
      * @param orderId O ID do pedido cujos itens serão recuperados.
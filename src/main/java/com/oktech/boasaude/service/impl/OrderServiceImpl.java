@@ -1,19 +1,47 @@
 package com.oktech.boasaude.service.impl;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.oktech.boasaude.entity.Order;
-import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.OrderStatus;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.KeysetPagination;
+import com.oktech.boasaude.repository.OrderBulkRepository;
+import com.oktech.boasaude.repository.OrderBulkRepository.TransitionedOrder;
 import com.oktech.boasaude.repository.OrderRepository;
+import com.oktech.boasaude.repository.RowCountEstimator;
 import com.oktech.boasaude.service.OrderService;
+import com.oktech.boasaude.dto.BulkOrderStatusUpdateDto;
 import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.IdempotentResponse;
+import com.oktech.boasaude.dto.OrderEventDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.dto.OrderStatusUpdateResultDto;
+import com.oktech.boasaude.dto.OrderStatusUpdateResultDto.Outcome;
+import com.oktech.boasaude.dto.OrderSummaryDto;
 
 /**
  * Implementação do serviço de pedidos.
@@ -29,58 +57,182 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderItemServiceImpl orderItemServiceImpl;
 
-    public OrderServiceImpl(OrderRepository orderRepository, OrderItemServiceImpl orderItemServiceImpl) {
+    private final RowCountEstimator rowCountEstimator;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final OrderBulkRepository orderBulkRepository;
+
+    private final ShopServiceImpl shopServiceImpl;
+
+    private final ProductServiceImpl productServiceImpl;
+
+    public OrderServiceImpl(OrderRepository orderRepository, OrderItemServiceImpl orderItemServiceImpl,
+            RowCountEstimator rowCountEstimator, IdempotencyStore idempotencyStore, OutboxPublisher outboxPublisher,
+            OrderBulkRepository orderBulkRepository, ShopServiceImpl shopServiceImpl,
+            ProductServiceImpl productServiceImpl) {
         this.orderRepository = orderRepository;
         this.orderItemServiceImpl = orderItemServiceImpl;
+        this.rowCountEstimator = rowCountEstimator;
+        this.idempotencyStore = idempotencyStore;
+        this.outboxPublisher = outboxPublisher;
+        this.orderBulkRepository = orderBulkRepository;
+        this.shopServiceImpl = shopServiceImpl;
+        this.productServiceImpl = productServiceImpl;
     }
 
     /**
      * Cria um novo pedido para o usuário atual com os itens de pedido fornecidos.
+     * Tudo numa transação: uma consulta para os produtos, a reserva do estoque
+     * e um único persist do pedido, que insere os itens em cascata com batch
+     * JDBC. Sem estoque para algum item, nada é gravado. O evento
+     * order.created vai para a outbox na mesma transação.
      * @param currentUser O usuário atual que está criando o pedido.
      * @param orderItems A lista de itens de pedido a serem adicionados ao pedido.
      * @return O pedido criado com os itens associados.
     */
     @Override
+    @Transactional
     public Order createOrder(User currentUser, List<CreateOrderItemDto> orderItems) {
         Order order = new Order(currentUser);
 
-        orderRepository.save(order);
-        
-        for (CreateOrderItemDto itemDto : orderItems) {
-            OrderItem orderItem = orderItemServiceImpl.addOrderItem(order, itemDto.productId(), itemDto.quantity());
-            order.getItems().add(orderItem);
-        }
+        orderItemServiceImpl.addOrderItems(order, orderItems);
 
-        return orderRepository.save(order);  
+        Order saved = orderRepository.save(order);
+        outboxPublisher.publish(OrderEventDto.AGGREGATE_TYPE, saved.getId(), OrderEventDto.CREATED,
+                OrderEventDto.created(saved));
+        return saved;
     }
 
+    /**
+     * Cria o pedido uma única vez por Idempotency-Key. Uma repetição recebe a
+     * resposta gravada sem executar nada; uma repetição simultânea espera a
+     * requisição original terminar. O pedido e a resposta são gravados na
+     * mesma transação.
+     * @param currentUser O usuário atual que está criando o pedido.
+     * @param orderItems A lista de itens de pedido.
+     * @param idempotencyKey Valor do cabeçalho Idempotency-Key.
+     * @return A resposta do pedido e se ela veio de uma requisição anterior.
+     */
+    @Override
+    public IdempotentResponse<OrderResponseDto> createOrder(User currentUser, List<CreateOrderItemDto> orderItems,
+            String idempotencyKey) {
+        return idempotencyStore.execute(currentUser.getId(), idempotencyKey, orderItems, OrderResponseDto.class,
+                () -> new OrderResponseDto(createOrder(currentUser, orderItems)));
+    }
+
+    /**
+     * Cancela o pedido do comprador; concluir um pedido fica com a loja
+     * (updateShopOrdersStatus). O UPDATE é condicional ao status lido, então
+     * dois cancelamentos simultâneos não devolvem o estoque duas vezes. A
+     * devolução do estoque e o evento order.status-changed ficam na mesma
+     * transação.
+     */
     @Override
+    @Transactional
     public Order updateOrderStatus(UUID orderId, String status, User currentUser) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
             .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
 
         if (!order.getUser().getId().equals(currentUser.getId())) {
             throw new IllegalArgumentException("You do not have permission to update this order.");
         }
 
-        if (status == null || status.isEmpty()) {
-            throw new IllegalArgumentException("Status cannot be null or empty.");
+        OrderStatus statusEnum = OrderStatus.parse(status);
+        if (statusEnum != OrderStatus.CANCELLED) {
+            throw new IllegalArgumentException("Buyers can only cancel orders.");
+        }
+        OrderStatus previousStatus = order.getStatus();
+        if (!previousStatus.canTransitionTo(statusEnum)) {
+            throw new IllegalArgumentException("Cannot change order status from " + previousStatus + " to "
+                    + statusEnum + ".");
         }
 
-        OrderStatus statusEnum;
-        try {
-            statusEnum = OrderStatus.valueOf(status.toUpperCase()); // Usa toUpperCase para garantir que combine
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid status value: " + status);
+        LocalDateTime now = LocalDateTime.now();
+        if (orderBulkRepository.transition(List.of(orderId), previousStatus, statusEnum, now).isEmpty()) {
+            throw new OptimisticLockingFailureException("Order " + orderId + " was changed by another request.");
         }
+        productServiceImpl.releaseStock(List.of(orderId));
 
         order.updateStatus(statusEnum);
-        return orderRepository.save(order);
+        outboxPublisher.publish(OrderEventDto.AGGREGATE_TYPE, orderId, OrderEventDto.STATUS_CHANGED,
+                OrderEventDto.statusChanged(orderId, currentUser.getId(), previousStatus, statusEnum,
+                        order.getTotalAmount(), order.getItemCount(), now));
+        return order;
+    }
+
+    /**
+     * Muda o status de vários pedidos da loja. O lojista só altera pedidos
+     * cujos itens são todos da loja dele; pedidos com itens de várias lojas
+     * são concluídos ou cancelados por um administrador, que pode alterar
+     * qualquer pedido por este mesmo caminho. Os status atuais são lidos
+     * numa única consulta, e cada status de origem com mudança permitida
+     * vira um UPDATE condicional (WHERE id IN (...) AND status = origem);
+     * os eventos order.status-changed vão para a outbox num único batch e o
+     * estoque dos pedidos cancelados volta para os produtos, tudo na mesma
+     * transação.
+     * @param shopId ID da loja.
+     * @param dto Pedidos e status de destino.
+     * @param currentUser Usuário que está alterando os pedidos.
+     * @return O resultado de cada pedido, na ordem da requisição.
+     */
+    @Override
+    @Transactional
+    public List<OrderStatusUpdateResultDto> updateShopOrdersStatus(UUID shopId, BulkOrderStatusUpdateDto dto,
+            User currentUser) {
+        OrderStatus target = OrderStatus.parse(dto.status());
+
+        boolean admin = currentUser.getRole() == UserRole.ADMIN;
+        if (!admin && !shopServiceImpl.isShopOwner(shopId, currentUser)) {
+            throw new AccessDeniedException("You do not have permission to update orders of this shop.");
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>(dto.orderIds());
+        Map<UUID, OrderStatus> current = admin
+                ? orderBulkRepository.findStatuses(ids)
+                : orderBulkRepository.findStatusesForShop(shopId, ids);
+
+        Map<OrderStatus, List<UUID>> bySource = new EnumMap<>(OrderStatus.class);
+        current.forEach((id, source) -> {
+            if (source.canTransitionTo(target)) {
+                bySource.computeIfAbsent(source, key -> new ArrayList<>()).add(id);
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, OrderEventDto> events = new LinkedHashMap<>();
+        bySource.forEach((source, group) -> {
+            for (TransitionedOrder order : orderBulkRepository.transition(group, source, target, now)) {
+                events.put(order.id(), OrderEventDto.statusChanged(order.id(), order.userId(), source, target,
+                        order.totalAmount(), order.itemCount(), now));
+            }
+        });
+        outboxPublisher.publishAll(OrderEventDto.AGGREGATE_TYPE, OrderEventDto.STATUS_CHANGED, events);
+        if (target == OrderStatus.CANCELLED) {
+            productServiceImpl.releaseStock(events.keySet());
+        }
+
+        List<OrderStatusUpdateResultDto> results = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            OrderStatus status = current.get(id);
+            if (events.containsKey(id)) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.UPDATED, target));
+            } else if (status == null) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.NOT_FOUND, null));
+            } else if (!status.canTransitionTo(target)) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.INVALID_TRANSITION, status));
+            } else {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.CONFLICT, null));
+            }
+        }
+        return results;
     }
 
     @Override
     public Order getOrderById(UUID orderId, User currentUser) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
             .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
 
         if (!order.getUser().getId().equals(currentUser.getId())) {
@@ -90,13 +242,84 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
+    /**
+     * Lista os pedidos do usuário com itens e produtos já carregados: uma
+     * consulta para a página de IDs, uma para o total e um fetch join para
+     * os pedidos, sem consultas extras ao montar a resposta.
+     */
     @Override
+    @Transactional(readOnly = true)
     public Page<Order> getOrdersByUserId(Pageable pageable, User currentUser) {
-        Page<Order> orders = orderRepository.findByUserId(currentUser.getId(), pageable);
-        if (orders.isEmpty()) {
+        Page<UUID> ids = orderRepository.findIdsByUserId(currentUser.getId(), pageable);
+        if (ids.isEmpty()) {
             throw new IllegalArgumentException("No orders found for user with ID: " + currentUser.getId());
         }
-        return orders;
+        return new PageImpl<>(fetchWithItems(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    /**
+     * Lista os pedidos do usuário sem executar a contagem total. Uma fatia
+     * vazia indica que não há pedidos nessa página.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersSliceByUserId(Pageable pageable, User currentUser) {
+        Slice<UUID> ids = orderRepository.findIdSliceByUserId(currentUser.getId(), pageable);
+        return new SliceImpl<>(fetchWithItems(ids.getContent()), ids.getPageable(), ids.hasNext());
+    }
+
+    /**
+     * Histórico de pedidos do usuário a partir da tabela orders, com os totais
+     * gravados no checkout.
+     */
+    @Override
+    public Slice<OrderSummaryDto> getOrderSummariesByUserId(Pageable pageable, User currentUser) {
+        return orderRepository.findSummarySliceByUserId(currentUser.getId(), pageable);
+    }
+
+    /**
+     * Total de pedidos do usuário, contado e mantido em cache por um TTL curto.
+     */
+    @Override
+    public long estimateOrderCountByUserId(User currentUser) {
+        return rowCountEstimator.cachedCount("orders:user:" + currentUser.getId(),
+                () -> orderRepository.countByUserId(currentUser.getId()));
+    }
+
+    /**
+     * Lista os pedidos do usuário a partir de um cursor, do mais recente para o
+     * mais antigo. Uma página vazia indica o fim da listagem.
+     * @param cursor Token da página, ou null para a primeira página.
+     * @param size Tamanho da página.
+     * @param currentUser Usuário dono dos pedidos.
+     * @return Página de pedidos com os tokens de navegação.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersByUserIdAndCursor(String cursor, int size, User currentUser) {
+        CursorPage<Order> page = KeysetPagination.fetch(orderRepository,
+                (root, query, cb) -> cb.equal(root.get("user").get("id"), currentUser.getId()),
+                cursor, size, Order::getCreatedAt, Order::getId);
+        if (!page.items().isEmpty()) {
+            // Os pedidos já estão no contexto de persistência; o fetch join só inicializa itens e produtos
+            orderRepository.findWithItemsByIdIn(page.items().stream().map(Order::getId).toList());
+        }
+        return page;
+    }
+
+    /**
+     * Carrega os pedidos com itens e produtos, na ordem dos IDs recebidos.
+     */
+    private List<Order> fetchWithItems(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Order> orders = orderRepository.findWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
@@ -0,0 +1,163 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oktech.boasaude.repository.OutboxRepository;
+import com.oktech.boasaude.repository.OutboxRepository.OutboxEvent;
+import com.oktech.boasaude.service.OutboxEventHandler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Esvazia a outbox em segundo plano. Cada lote é travado com
+ * FOR UPDATE SKIP LOCKED, entregue aos handlers e apagado de uma vez, na
+ * mesma transação; várias instâncias podem rodar o dispatcher ao mesmo tempo
+ * sem entregar o mesmo lote. Um evento que falha volta com backoff
+ * exponencial e, esgotadas as tentativas, sai do polling.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxRepository outboxRepository;
+
+    private final List<OutboxEventHandler> handlers;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerPoll;
+
+    private final int maxAttempts;
+
+    private final Counter deliveredCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter parkedCounter;
+
+    private final Timer lagTimer;
+
+    public OutboxDispatcher(OutboxRepository outboxRepository, List<OutboxEventHandler> handlers,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${outbox.batch-size:100}") int batchSize,
+            @Value("${outbox.max-batches-per-poll:10}") int maxBatchesPerPoll,
+            @Value("${outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.maxAttempts = maxAttempts;
+        this.deliveredCounter = Counter.builder("outbox.events")
+                .description("Outbox events by dispatch result")
+                .tag("result", "delivered")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("outbox.events")
+                .description("Outbox events by dispatch result")
+                .tag("result", "retried")
+                .register(meterRegistry);
+        this.parkedCounter = Counter.builder("outbox.events")
+                .description("Outbox events by dispatch result")
+                .tag("result", "parked")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.events.lag")
+                .description("Time between writing an outbox event and delivering it")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Processa lotes até a outbox ficar vazia ou atingir o limite por rodada.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            Integer processed = transactionTemplate.execute(this::dispatchBatch);
+            if (processed == null || processed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cada evento roda sob um savepoint: um handler que falhe no banco desfaz
+     * só o próprio trabalho, sem abortar a transação do lote.
+     */
+    private int dispatchBatch(TransactionStatus status) {
+        List<OutboxEvent> events = outboxRepository.lockPending(LocalDateTime.now(), batchSize);
+        List<Long> delivered = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            Object savepoint = status.createSavepoint();
+            try {
+                deliver(event);
+                status.releaseSavepoint(savepoint);
+                delivered.add(event.id());
+                lagTimer.record(Duration.between(event.createdAt(), LocalDateTime.now()));
+            } catch (Exception e) {
+                status.rollbackToSavepoint(savepoint);
+                reschedule(event, e);
+            }
+        }
+        outboxRepository.deleteAll(delivered);
+        deliveredCounter.increment(delivered.size());
+        return events.size();
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        for (OutboxEventHandler handler : handlers) {
+            if (handler.supports(event.eventType())) {
+                handler.handle(event);
+            }
+        }
+    }
+
+    private void reschedule(OutboxEvent event, Exception error) {
+        int attempts = event.attempts() + 1;
+        String message = truncate(String.valueOf(error.getMessage()));
+        if (attempts >= maxAttempts) {
+            outboxRepository.park(event.id(), attempts, message);
+            parkedCounter.increment();
+            logger.error("Outbox event {} ({}) failed {} times and was parked", event.id(), event.eventType(),
+                    attempts, error);
+            return;
+        }
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(attempts));
+        outboxRepository.retryLater(event.id(), attempts, nextAttemptAt, message);
+        retriedCounter.increment();
+        logger.warn("Outbox event {} ({}) failed, retrying at {}", event.id(), event.eventType(), nextAttemptAt,
+                error);
+    }
+
+    /**
+     * 2, 4, 8... segundos, até {@value #MAX_BACKOFF_SECONDS}.
+     */
+    static Duration backoff(int attempts) {
+        return Duration.ofSeconds(Math.min(1L << Math.min(attempts, 30), MAX_BACKOFF_SECONDS));
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
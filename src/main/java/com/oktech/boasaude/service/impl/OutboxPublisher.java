@@ -0,0 +1,76 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.repository.OutboxRepository;
+
+/**
+ * Grava eventos na outbox. Exige uma transação ativa: o evento só existe se a
+ * mudança que o gerou for confirmada, e a mudança nunca é confirmada sem o
+ * evento.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class OutboxPublisher {
+
+    private final OutboxRepository outboxRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param aggregateType Tipo da entidade, por exemplo "Order".
+     * @param aggregateId   ID da entidade.
+     * @param eventType     Tipo do evento, usado pelos handlers para filtrar.
+     * @param payload       Corpo do evento, gravado como JSON.
+     * @throws IllegalStateException se não houver transação ativa.
+     */
+    public void publish(String aggregateType, UUID aggregateId, String eventType, Object payload) {
+        requireTransaction();
+        outboxRepository.append(aggregateType, aggregateId, eventType, toJson(payload), LocalDateTime.now());
+    }
+
+    /**
+     * Publica vários eventos do mesmo tipo com um único batch de INSERTs.
+     *
+     * @param payloads Corpo do evento por ID da entidade.
+     * @throws IllegalStateException se não houver transação ativa.
+     */
+    public void publishAll(String aggregateType, String eventType, Map<UUID, ?> payloads) {
+        requireTransaction();
+        if (payloads.isEmpty()) {
+            return;
+        }
+        Map<UUID, String> json = new LinkedHashMap<>();
+        payloads.forEach((aggregateId, payload) -> json.put(aggregateId, toJson(payload)));
+        outboxRepository.appendAll(aggregateType, eventType, json, LocalDateTime.now());
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be published inside a transaction.");
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Event payload could not be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.oktech.boasaude.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.service.ProductExportService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * ProductExportServiceImpl lê os produtos por um cursor do servidor e escreve
+ * cada um assim que chega, desanexando a entidade logo em seguida; o uso de
+ * memória não depende do tamanho do catálogo.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportServiceImpl.class);
+
+    /**
+     * Produtos escritos entre um flush e outro da resposta.
+     */
+    private static final int FLUSH_EVERY = 500;
+
+    private final ProductRepository productRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public ProductExportServiceImpl(ProductRepository productRepository, EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A transação mantém o cursor aberto no Postgres; sem ela o driver ignora
+     * o fetch size.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(UUID shopId, String category, OutputStream output) throws IOException {
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamForExport(shopId, blankToNull(category));
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                generator.writeObject(new ProductResponseDto(product));
+                generator.writeRaw('\n');
+                entityManager.detach(product);
+
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+
+        logger.info("Exported {} products (shop: {}, category: {})", count, shopId, category);
+        return count;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
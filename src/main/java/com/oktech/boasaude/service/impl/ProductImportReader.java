@@ -0,0 +1,233 @@
+package com.oktech.boasaude.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.dto.CreateProductDto;
+import com.oktech.boasaude.service.ProductImportService.Format;
+
+/**
+ * Lê um arquivo de importação linha a linha, devolvendo um produto (ou o erro
+ * de leitura) por linha. Só a linha corrente fica em memória.
+ * No CSV a primeira linha é o cabeçalho, com as colunas name, description,
+ * category, stock e price em qualquer ordem; campos entre aspas podem conter
+ * vírgulas e aspas duplicadas, mas não quebras de linha. No NDJSON cada linha
+ * é um objeto JSON com os mesmos campos.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+final class ProductImportReader {
+
+    static final List<String> CSV_COLUMNS = List.of("name", "description", "category", "stock", "price");
+
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    /**
+     * Uma linha lida: o produto, ou a mensagem de erro quando a linha não pôde
+     * ser interpretada.
+     */
+    record Row(long line, CreateProductDto product, String error) {
+    }
+
+    private final Reader reader;
+
+    private final Format format;
+
+    private final ObjectMapper objectMapper;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private long line;
+
+    private boolean truncated;
+
+    private boolean endOfInput;
+
+    /**
+     * Posição de cada coluna de CSV_COLUMNS no arquivo; null até ler o cabeçalho.
+     */
+    private int[] columns;
+
+    ProductImportReader(Reader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Lê a próxima linha com conteúdo.
+     *
+     * @return A linha lida, ou null no fim do arquivo.
+     * @throws IllegalArgumentException se o cabeçalho do CSV for inválido.
+     */
+    Row next() throws IOException {
+        while (readLine()) {
+            if (truncated) {
+                return new Row(line, null, "Linha excede " + MAX_LINE_LENGTH + " caracteres.");
+            }
+            String text = buffer.toString();
+            if (line == 1 && text.startsWith("\uFEFF")) {
+                text = text.substring(1);
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(text);
+            }
+            if (columns == null) {
+                columns = parseHeader(text);
+                continue;
+            }
+            return parseCsv(text);
+        }
+        if (format == Format.CSV && columns == null) {
+            throw new IllegalArgumentException("Arquivo CSV sem cabeçalho.");
+        }
+        return null;
+    }
+
+    /**
+     * Carrega a próxima linha no buffer, sem o terminador. Linhas acima do
+     * limite são descartadas até o fim e marcadas como truncadas.
+     *
+     * @return false no fim do arquivo.
+     */
+    private boolean readLine() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.setLength(0);
+        truncated = false;
+        int c;
+        boolean read = false;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (c == '\n') {
+                break;
+            }
+            if (buffer.length() < MAX_LINE_LENGTH) {
+                buffer.append((char) c);
+            } else {
+                truncated = true;
+            }
+        }
+        if (c == -1) {
+            endOfInput = true;
+            if (!read) {
+                return false;
+            }
+        }
+        if (buffer.length() > 0 && buffer.charAt(buffer.length() - 1) == '\r') {
+            buffer.setLength(buffer.length() - 1);
+        }
+        line++;
+        return true;
+    }
+
+    private Row parseJson(String text) {
+        try {
+            CreateProductDto product = objectMapper.readValue(text, CreateProductDto.class);
+            if (product == null) {
+                // Uma linha "null" é JSON válido, mas não descreve um produto
+                return new Row(line, null, "JSON inválido: a linha deve ser um objeto");
+            }
+            return new Row(line, product, null);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private int[] parseHeader(String text) {
+        List<String> header = splitCsv(text);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        int[] result = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer position = positions.get(CSV_COLUMNS.get(i));
+            if (position == null) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho: " + CSV_COLUMNS.get(i));
+            }
+            result[i] = position;
+        }
+        return result;
+    }
+
+    private Row parseCsv(String text) {
+        List<String> fields;
+        try {
+            fields = splitCsv(text);
+        } catch (IllegalArgumentException e) {
+            return new Row(line, null, e.getMessage());
+        }
+
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            String value = columns[i] < fields.size() ? fields.get(columns[i]).trim() : "";
+            values[i] = value.isEmpty() ? null : value;
+        }
+
+        try {
+            return new Row(line, new CreateProductDto(values[0], values[1], values[2],
+                    parseInteger("stock", values[3]), parseInteger("price", values[4])), null);
+        } catch (IllegalArgumentException e) {
+            return new Row(line, null, e.getMessage());
+        }
+    }
+
+    private static Integer parseInteger(String column, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Separa uma linha CSV (RFC 4180) em campos.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    current.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Campo entre aspas não terminado.");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
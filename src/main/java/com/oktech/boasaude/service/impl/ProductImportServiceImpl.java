@@ -0,0 +1,214 @@
+package com.oktech.boasaude.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.dto.CreateProductDto;
+import com.oktech.boasaude.dto.ProductImportResultDto;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.ProductImportService;
+import com.oktech.boasaude.service.ProductSearchService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * ProductImportServiceImpl grava os produtos importados em lotes, cada lote na
+ * sua própria transação: os inserts vão ao banco em batch JDBC
+ * (hibernate.jdbc.batch_size, reescritos pelo driver em inserts multi-linha
+ * com reWriteBatchedInserts) e o contexto de persistência é limpo ao fim de
+ * cada lote, então a memória usada não cresce com o tamanho do arquivo.
+ * As linhas passam pelas mesmas validações de createProduct; a posse da loja
+ * é verificada uma única vez.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private final ShopServiceImpl shopServiceImpl;
+
+    private final ProductSearchService productSearchService;
+
+    private final CatalogVersions catalogVersions;
+
+    private final CategoryFacets categoryFacets;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+
+    private final int maxReportedErrors;
+
+    private final Counter importedCounter;
+
+    private final Counter rejectedCounter;
+
+    public ProductImportServiceImpl(ShopServiceImpl shopServiceImpl, ProductSearchService productSearchService,
+            CatalogVersions catalogVersions, CategoryFacets categoryFacets, EntityManager entityManager, TransactionTemplate transactionTemplate,
+            Validator validator, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${products.import.batch-size:500}") int batchSize,
+            @Value("${products.import.max-reported-errors:1000}") int maxReportedErrors) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("products.import.batch-size must be positive");
+        }
+        this.shopServiceImpl = shopServiceImpl;
+        this.productSearchService = productSearchService;
+        this.catalogVersions = catalogVersions;
+        this.categoryFacets = categoryFacets;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedCounter = Counter.builder("products.import.rows")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("products.import.rows")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductImportResultDto importProducts(UUID shopId, InputStream input, Format format, User currentUser)
+            throws IOException {
+        if (!shopServiceImpl.isShopOwner(shopId, currentUser)) {
+            throw new AccessDeniedException("You do not have permission to create products for this shop.");
+        }
+
+        Report report = new Report(maxReportedErrors);
+        ProductImportReader reader = new ProductImportReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8), format, objectMapper);
+        List<ProductImportReader.Row> batch = new ArrayList<>(batchSize);
+
+        ProductImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            String error = row.error() != null ? row.error() : validate(row.product());
+            if (error != null) {
+                report.reject(row.line(), error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                write(shopId, batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(shopId, batch, report);
+        }
+
+        if (report.imported > 0) {
+            catalogVersions.productChanged(shopId);
+        }
+        importedCounter.increment(report.imported);
+        rejectedCounter.increment(report.rejected);
+        logger.info("Imported {} products into shop {} ({} rejected)", report.imported, shopId, report.rejected);
+
+        return new ProductImportResultDto(report.imported, report.rejected, report.errors,
+                report.rejected - report.errors.size());
+    }
+
+    /**
+     * Aplica as validações do DTO e as regras de createProduct.
+     *
+     * @return A mensagem de erro, ou null se o produto for válido.
+     */
+    private String validate(CreateProductDto product) {
+        Set<ConstraintViolation<CreateProductDto>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            ProductServiceImpl.checkPriceAndStock(product);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void write(UUID shopId, List<ProductImportReader.Row> rows, Report report) {
+        List<Product> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Shop shop = entityManager.getReference(Shop.class, shopId);
+                List<Product> products = new ArrayList<>(rows.size());
+                for (ProductImportReader.Row row : rows) {
+                    Product product = new Product(row.product(), shop);
+                    entityManager.persist(product);
+                    products.add(product);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return products;
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write import batch for shop {} (lines {}-{})", shopId,
+                    rows.get(0).line(), rows.get(rows.size() - 1).line(), e);
+            rows.forEach(row -> report.reject(row.line(), "Falha ao gravar o lote desta linha."));
+            return;
+        }
+
+        for (Product product : saved) {
+            productSearchService.index(product);
+            categoryFacets.productAdded(shopId, product.getCategory());
+        }
+        report.imported += saved.size();
+    }
+
+    private static final class Report {
+
+        private final int maxErrors;
+
+        private final List<ProductImportResultDto.RowError> errors = new ArrayList<>();
+
+        private long imported;
+
+        private long rejected;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportResultDto.RowError(line, message));
+            }
+        }
+    }
+}
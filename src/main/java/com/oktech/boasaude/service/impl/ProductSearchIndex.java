@@ -0,0 +1,288 @@
+package com.oktech.boasaude.service.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória sobre nome, categoria e descrição dos produtos.
+ * Os termos são normalizados sem acentos e em minúsculas, então "Proteína"
+ * e "proteina" caem no mesmo termo. Cada termo aponta para os produtos que o
+ * contêm, com um peso que favorece ocorrências no nome.
+ * A busca exige todos os termos da consulta (AND); o último termo também
+ * casa por prefixo, para atender buscas enquanto o usuário digita.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+final class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+
+    private static final float CATEGORY_WEIGHT = 2.0f;
+
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    /**
+     * Desconto aplicado a termos que casam só por prefixo.
+     */
+    private static final float PREFIX_FACTOR = 0.7f;
+
+    /**
+     * Quantidade máxima de termos expandidos a partir de um prefixo.
+     */
+    private static final int MAX_PREFIX_EXPANSION = 64;
+
+    private static final double K1 = 1.2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "da", "do", "das", "dos", "e", "em", "no", "na", "nos", "nas",
+            "com", "sem", "para", "por", "um", "uma", "uns", "umas", "os", "as", "ao", "aos");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Termo -> (produto -> peso do termo no produto).
+     */
+    private final NavigableMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+
+    /**
+     * Produto -> termos indexados, usado para remover as entradas antigas.
+     */
+    private final Map<UUID, Set<String>> documents = new HashMap<>();
+
+    record Result(List<UUID> ids, long total) {
+    }
+
+    /**
+     * Indexa o produto, substituindo a versão anterior se houver.
+     */
+    void put(UUID id, String name, String category, String description) {
+        Map<String, Float> weights = weigh(name, category, description);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            addLocked(id, weights);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa o produto apenas se ele ainda não estiver no índice.
+     *
+     * @return true se o produto foi indexado.
+     */
+    boolean putIfAbsent(UUID id, String name, String category, String description) {
+        Map<String, Float> weights = weigh(name, category, description);
+        lock.writeLock().lock();
+        try {
+            if (documents.containsKey(id)) {
+                return false;
+            }
+            addLocked(id, weights);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os produtos que contêm todos os termos da consulta, ordenados por
+     * relevância.
+     *
+     * @param query  Texto digitado pelo usuário.
+     * @param offset Posição do primeiro resultado.
+     * @param limit  Tamanho da página.
+     * @return IDs da página e o total de produtos encontrados.
+     */
+    Result search(String query, long offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        Map<UUID, Double> scores;
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean last = i == terms.size() - 1;
+                Map<UUID, Double> termScores = score(terms.get(i), last, documentCount, scores);
+                if (termScores.isEmpty()) {
+                    return new Result(List.of(), 0);
+                }
+                scores = termScores;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return page(scores, offset, limit);
+    }
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza o texto em termos: remove acentos, converte para minúsculas,
+     * descarta stopwords e reduz o plural simples em "s".
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.length() < 2 || STOPWORDS.contains(token)) {
+                continue;
+            }
+            if (token.length() > 3 && token.endsWith("s")) {
+                token = token.substring(0, token.length() - 1);
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Pontua um termo da consulta, restringindo aos candidatos dos termos
+     * anteriores quando houver (interseção).
+     */
+    private Map<UUID, Double> score(String term, boolean prefix, int documentCount, Map<UUID, Double> candidates) {
+        Map<String, Map<UUID, Float>> matches = new HashMap<>();
+        Map<UUID, Float> exact = postings.get(term);
+        if (exact != null) {
+            matches.put(term, exact);
+        }
+        if (prefix) {
+            int expanded = 0;
+            for (Map.Entry<String, Map<UUID, Float>> entry : postings.subMap(term, false, term + Character.MAX_VALUE, false)
+                    .entrySet()) {
+                if (expanded++ >= MAX_PREFIX_EXPANSION) {
+                    break;
+                }
+                matches.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Map<UUID, Double> result = new HashMap<>();
+        for (Map.Entry<String, Map<UUID, Float>> match : matches.entrySet()) {
+            Map<UUID, Float> docs = match.getValue();
+            double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            double factor = match.getKey().equals(term) ? 1.0 : PREFIX_FACTOR;
+            for (Map.Entry<UUID, Float> doc : docs.entrySet()) {
+                Double previous = candidates == null ? Double.valueOf(0) : candidates.get(doc.getKey());
+                if (previous == null) {
+                    continue;
+                }
+                double weight = doc.getValue();
+                double termScore = factor * idf * (weight * (K1 + 1)) / (weight + K1);
+                // Um documento que casa vários termos expandidos conta o melhor deles
+                result.merge(doc.getKey(), previous + termScore, Math::max);
+            }
+        }
+        return result;
+    }
+
+    private static Result page(Map<UUID, Double> scores, long offset, int limit) {
+        long wanted = offset + limit;
+        if (offset >= scores.size() || limit <= 0) {
+            return new Result(List.of(), scores.size());
+        }
+
+        Comparator<Map.Entry<UUID, Double>> ranking = Map.Entry.<UUID, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+
+        // Heap limitado às primeiras offset + limit posições
+        PriorityQueue<Map.Entry<UUID, Double>> top = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<UUID, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        List<UUID> ids = ranked.subList((int) offset, ranked.size()).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+        return new Result(ids, scores.size());
+    }
+
+    private static Map<String, Float> weigh(String name, String category, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Float::sum));
+        tokenize(category).forEach(term -> weights.merge(term, CATEGORY_WEIGHT, Float::sum));
+        tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        return weights;
+    }
+
+    private void addLocked(UUID id, Map<String, Float> weights) {
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        documents.put(id, weights.keySet());
+    }
+
+    private void removeLocked(UUID id) {
+        Set<String> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<UUID, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.service.ProductSearchService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * ProductSearchServiceImpl responde às buscas a partir de um índice invertido
+ * em memória, sem o LIKE '%x%' que obrigava o banco a varrer a tabela.
+ * O índice é atualizado a cada criação, alteração ou exclusão de produto e
+ * reconstruído por completo na inicialização e periodicamente.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final ProductRepository productRepository;
+
+    private final Timer queryTimer;
+
+    private final Timer rebuildTimer;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+
+    /**
+     * Índice em construção; recebe as mesmas escritas do índice ativo para não
+     * perder alterações feitas durante a reconstrução. Protegido por this.
+     */
+    private ProductSearchIndex rebuilding;
+
+    /**
+     * Produtos excluídos durante a reconstrução, que não devem ser reinseridos
+     * a partir de uma leitura anterior à exclusão. Protegido por this.
+     */
+    private final Set<UUID> removedDuringRebuild = new HashSet<>();
+
+    public ProductSearchServiceImpl(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.queryTimer = Timer.builder("search.products.query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("search.products.rebuild")
+                .register(meterRegistry);
+        Gauge.builder("search.products.documents", this, service -> service.index.documentCount())
+                .register(meterRegistry);
+        Gauge.builder("search.products.terms", this, service -> service.index.termCount())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca no índice a página de IDs e carrega apenas esses produtos, pela
+     * chave primária, preservando a ordem de relevância.
+     */
+    @Override
+    public Page<Product> search(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank.");
+        }
+
+        ProductSearchIndex.Result result = queryTimer.record(
+                () -> index.search(query, pageable.getOffset(), pageable.getPageSize()));
+        if (result.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.total());
+        }
+
+        Map<UUID, Product> products = productRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> ordered = result.ids().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ordered, pageable, result.total());
+    }
+
+    @Override
+    public synchronized void index(Product product) {
+        index.put(product.getId(), product.getName(), product.getCategory(), product.getDescription());
+        if (rebuilding != null) {
+            rebuilding.put(product.getId(), product.getName(), product.getCategory(), product.getDescription());
+        }
+    }
+
+    @Override
+    public synchronized void remove(UUID productId) {
+        index.remove(productId);
+        if (rebuilding != null) {
+            rebuilding.remove(productId);
+            removedDuringRebuild.add(productId);
+        }
+    }
+
+    /**
+     * Reconstrói o índice lendo a tabela em lotes por ID (keyset) e troca o
+     * índice ativo ao final. As buscas continuam sendo atendidas pelo índice
+     * anterior enquanto isso.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.products.rebuild-interval-ms:3600000}",
+            initialDelayString = "${search.products.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        ProductSearchIndex building = new ProductSearchIndex();
+        synchronized (this) {
+            if (rebuilding != null) {
+                logger.info("Product search index rebuild already in progress");
+                return;
+            }
+            rebuilding = building;
+        }
+
+        long start = System.nanoTime();
+        try {
+            UUID lastId = MIN_UUID;
+            List<Product> batch;
+            do {
+                batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+                synchronized (this) {
+                    for (Product product : batch) {
+                        if (!removedDuringRebuild.contains(product.getId())) {
+                            building.putIfAbsent(product.getId(), product.getName(), product.getCategory(),
+                                    product.getDescription());
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            synchronized (this) {
+                index = building;
+            }
+            logger.info("Product search index rebuilt: {} products, {} terms",
+                    building.documentCount(), building.termCount());
+        } catch (RuntimeException e) {
+            logger.error("Product search index rebuild failed, keeping the previous index", e);
+        } finally {
+            synchronized (this) {
+                rebuilding = null;
+                removedDuringRebuild.clear();
+            }
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
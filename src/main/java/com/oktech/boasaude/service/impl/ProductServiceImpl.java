@@ -1,18 +1,43 @@
 package com.oktech.boasaude.service.impl;
 
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.oktech.boasaude.dto.BulkProductUpdateDto;
+import com.oktech.boasaude.dto.CategoryFacetsDto;
 import com.oktech.boasaude.dto.CreateProductDto;
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.ProductQueryDto;
+import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.Product;
 import com.oktech.boasaude.entity.Shop;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.KeysetPagination;
+import com.oktech.boasaude.repository.ProductBulkRepository;
+import com.oktech.boasaude.repository.ProductQueryRepository;
 import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.repository.RowCountEstimator;
+import com.oktech.boasaude.service.ProductSearchService;
 import com.oktech.boasaude.service.ProductService;
 
 /**
@@ -31,15 +56,54 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     
     private final ShopServiceImpl shopServiceImpl;
+
+    /**
+     * Índice de busca, mantido em dia a cada escrita.
+     */
+    private final ProductSearchService productSearchService;
+
+    private final RowCountEstimator rowCountEstimator;
+
+    private final ProductSnapshotCache productCache;
+
+    private final CatalogVersions catalogVersions;
+
+    private final ProductBulkRepository productBulkRepository;
+
+    private final CategoryFacets categoryFacets;
+
+    private final ProductQueryRepository productQueryRepository;
+
+    private final FlashSaleInventory flashSaleInventory;
     
     /**
      * Injetando o repositório de produtos.
      * @param productRepository Repositório de produtos para operações CRUD.
      * @param shopRepository Repositório de lojas para operações CRUD.
+     * @param productSearchService Índice de busca de produtos.
+     * @param rowCountEstimator Totais aproximados para as listagens.
+     * @param productCache Cache de leitura de produtos por ID.
+     * @param catalogVersions Versões do catálogo para os ETags.
+     * @param productBulkRepository Alterações de preço e estoque em lote.
+     * @param categoryFacets Contagens de produtos por categoria.
+     * @param productQueryRepository Consulta com filtros combináveis.
+     * @param flashSaleInventory Estoque em memória dos produtos em flash sale.
      */
-    public ProductServiceImpl(ProductRepository productRepository, ShopServiceImpl shopServiceImpl) {
+    public ProductServiceImpl(ProductRepository productRepository, ShopServiceImpl shopServiceImpl,
+            ProductSearchService productSearchService, RowCountEstimator rowCountEstimator,
+            ProductSnapshotCache productCache, CatalogVersions catalogVersions,
+            ProductBulkRepository productBulkRepository, CategoryFacets categoryFacets,
+            ProductQueryRepository productQueryRepository, FlashSaleInventory flashSaleInventory) {
         this.productRepository = productRepository;
         this.shopServiceImpl = shopServiceImpl;
+        this.productSearchService = productSearchService;
+        this.rowCountEstimator = rowCountEstimator;
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+        this.productBulkRepository = productBulkRepository;
+        this.categoryFacets = categoryFacets;
+        this.productQueryRepository = productQueryRepository;
+        this.flashSaleInventory = flashSaleInventory;
     }
 
     /**
@@ -51,13 +115,7 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public Product createProduct(CreateProductDto createProductDto, UUID shopId, User currentUser) {
-        if(createProductDto.price() <= 0){
-            throw new IllegalArgumentException("Must be positive price.");
-        }
-
-        if(createProductDto.stock() <= 0){
-            throw new IllegalArgumentException("Must be positive stock.");
-        }
+        checkPriceAndStock(createProductDto);
 
         Shop shop = shopServiceImpl.getShopById(shopId);
 
@@ -66,64 +124,351 @@ public class ProductServiceImpl implements ProductService {
             throw new AccessDeniedException("You do not have permission to create products for this shop.");
         }
 
-        Product product = new Product(createProductDto, shop);
-        
-        return productRepository.save(product);
+        Product product = productRepository.save(new Product(createProductDto, shop));
+        productSearchService.index(product);
+        categoryFacets.productAdded(shopId, product.getCategory());
+        catalogVersions.productChanged(shopId);
+
+        return product;
     }
 
 
     /**
-     * Obtém um produto pelo seu ID.
+     * Regras de preço e estoque aplicadas na criação, na alteração e na
+     * importação de produtos.
+     * @param dto Dados do produto.
+     * @throws IllegalArgumentException se o preço ou o estoque não forem positivos.
+     */
+    static void checkPriceAndStock(CreateProductDto dto) {
+        if(dto.price() <= 0){
+            throw new IllegalArgumentException("Must be positive price.");
+        }
+
+        if(dto.stock() <= 0){
+            throw new IllegalArgumentException("Must be positive stock.");
+        }
+    }
+
+    /**
+     * Obtém um produto pelo seu ID, a partir do cache de snapshots.
+     * O produto retornado é uma cópia destacada; a loja contém apenas o ID.
      * @param id ID do produto a ser obtido.
      * @return O produto encontrado.
      */
     @Override
     public Product getProductById(UUID id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        ProductSnapshot snapshot = productCache.get(id);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Product not found with id: " + id);
+        }
+        return snapshot.toProduct();
     }
 
     /**
-     * Obtém todos os produtos com paginação.
+     * Carrega vários produtos numa única consulta por ID.
+     * @param ids IDs dos produtos.
+     * @return Os produtos encontrados, gerenciados pela transação corrente;
+     *         IDs inexistentes ficam de fora.
+     */
+    @Override
+    public List<Product> getProductsByIds(Collection<UUID> ids) {
+        return productRepository.findAllById(ids);
+    }
+
+    /**
+     * Obtém todos os produtos com paginação, projetados direto no DTO de
+     * resposta.
      * @param pageable Objeto Pageable para paginação.
      * @return Página de produtos.
      */
     @Override
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public Page<ProductResponseDto> getAllProducts(Pageable pageable) {
+        return productRepository.findAllResponses(pageable);
     }
 
     /**
      * Atualiza um produto existente com os novos dados fornecidos.
+     * O estoque enviado é absoluto, então só é aceito quando a edição parte da
+     * versão atual do produto (expectedVersion); sem ela, um estoque diferente
+     * do atual é recusado, já que sobrescreveria as reservas feitas depois da
+     * leitura. Variações relativas vão pelo stockDelta da alteração em lote.
      * @param id ID do produto a ser atualizado.
      * @param product Objeto Product com os novos dados.
+     * @param expectedVersion Versão lida pelo cliente (If-Match), ou nulo.
      * @param currentUser Usuário que está tentando atualizar o produto.
      * @return O produto atualizado.
+     * @throws OptimisticLockingFailureException se o produto mudou desde a leitura.
      */
     @Override
-    public Product updateProduct(UUID id, CreateProductDto CreateProductDto, User currentUser) {
+    public Product updateProduct(UUID id, CreateProductDto CreateProductDto, Long expectedVersion,
+            User currentUser) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
 
-        if(!product.getShop().getOwner().getId().equals(currentUser.getId())) {
+        if(!shopServiceImpl.isShopOwner(product.getShop().getId(), currentUser)) {
             throw new AccessDeniedException("You do not have permission to update this product.");
         }
 
-        if(CreateProductDto.price() <= 0){
-            throw new IllegalArgumentException("Must be positive price.");
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new OptimisticLockingFailureException("Product was changed since it was read: " + id);
+        }
+        if (expectedVersion == null && !Objects.equals(CreateProductDto.stock(), product.getStock())) {
+            throw new IllegalArgumentException("Changing the stock requires If-Match with the product ETag; "
+                    + "use stockDelta in bulk-update for relative changes.");
         }
 
-        if(CreateProductDto.stock() <= 0){
-            throw new IllegalArgumentException("Must be positive stock.");
+        checkPriceAndStock(CreateProductDto);
+        if (!Objects.equals(CreateProductDto.stock(), product.getStock())
+                && !productBulkRepository.findInFlashSale(List.of(id)).isEmpty()) {
+            throw new IllegalArgumentException("Product is in flash sale; end the sale before changing its stock.");
         }
 
+        String previousCategory = product.getCategory();
         product.setName(CreateProductDto.name());
         product.setDescription(CreateProductDto.description());
         product.setPrice(CreateProductDto.price());
         product.setStock(CreateProductDto.stock());
         product.setCategory(CreateProductDto.category());
 
-        return productRepository.save(product);
+        Product updated = productRepository.save(product);
+        productCache.invalidate(id);
+        productSearchService.index(updated);
+        categoryFacets.categoryChanged(product.getShop().getId(), previousCategory, updated.getCategory());
+        catalogVersions.productChanged(product.getShop().getId());
+
+        return updated;
+    }
+
+    /**
+     * Altera preço e estoque de vários produtos da loja num único UPDATE,
+     * atômico por si só; o cache é invalidado depois dele. A posse da loja é
+     * verificada uma vez; produtos de outras lojas, variações que deixariam o
+     * estoque negativo e mudanças de estoque de produtos em flash sale são
+     * ignorados pelo filtro do UPDATE e ficam de fora da contagem.
+     * @param shopId ID da loja.
+     * @param dto Alterações por produto.
+     * @param currentUser Usuário que está alterando os produtos.
+     * @return Quantidade de produtos alterados.
+     */
+    @Override
+    public int bulkUpdateProducts(UUID shopId, BulkProductUpdateDto dto, User currentUser) {
+        if (dto.items() == null || dto.items().isEmpty()) {
+            throw new IllegalArgumentException("No products to update");
+        }
+        Set<UUID> ids = new HashSet<>();
+        for (BulkProductUpdateDto.Item item : dto.items()) {
+            if (!ids.add(item.productId())) {
+                throw new IllegalArgumentException("Duplicated product: " + item.productId());
+            }
+            if (item.price() == null && item.stock() == null && item.stockDelta() == null) {
+                throw new IllegalArgumentException("Nothing to update for product: " + item.productId());
+            }
+            if (item.stock() != null && item.stockDelta() != null) {
+                throw new IllegalArgumentException("Use either stock or stockDelta for product: " + item.productId());
+            }
+            if ((item.stock() != null || item.stockDelta() != null) && flashSaleInventory.isHot(item.productId())) {
+                throw new IllegalArgumentException("Product is in flash sale; end the sale before changing its stock: "
+                        + item.productId());
+            }
+        }
+
+        if(!shopServiceImpl.isShopOwner(shopId, currentUser)) {
+            throw new AccessDeniedException("You do not have permission to update products of this shop.");
+        }
+
+        int updated = productBulkRepository.applyUpdates(shopId, dto.items(), LocalDateTime.now());
+        ids.forEach(productCache::invalidate);
+        catalogVersions.productChanged(shopId);
+
+        return updated;
+    }
+
+    /**
+     * Dá baixa no estoque dos itens de um pedido com UPDATEs condicionais
+     * (stock >= quantidade), aplicados em ordem de ID. Precisa rodar dentro
+     * da transação do pedido: se algum produto não tiver estoque, a exceção
+     * faz o rollback de todas as baixas. Cache e versões do catálogo são
+     * atualizados só depois do commit.
+     * Produtos em flash sale são reservados em memória, sem tocar a linha; a
+     * reserva é confirmada no commit e devolvida se a transação falhar.
+     * Produtos em flash sale em outra instância são recusados pelo UPDATE.
+     * @param items Itens do pedido, um por produto.
+     * @throws IllegalArgumentException se algum produto não tiver estoque suficiente
+     * ou estiver em flash sale em outra instância.
+     */
+    @Override
+    public void reserveStock(List<OrderItem> items) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        Set<UUID> shopIds = new HashSet<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Math::addExact);
+            shopIds.add(item.getProduct().getShop().getId());
+        }
+
+        List<FlashSaleInventory.Reservation> hot = new ArrayList<>();
+        hot.add(flashSaleInventory.reserve(quantities));
+        Map<UUID, Integer> rows = new LinkedHashMap<>(quantities);
+        rows.keySet().removeAll(hot.get(0).productIds());
+
+        if (!rows.isEmpty()) {
+            try {
+                List<UUID> refused = moveToFlashSale(productBulkRepository.reserveStock(rows, LocalDateTime.now()),
+                        rows, hot);
+                if (!refused.isEmpty()) {
+                    Set<UUID> inFlashSale = productBulkRepository.findInFlashSale(refused);
+                    if (!inFlashSale.isEmpty()) {
+                        throw new IllegalArgumentException("Product is in flash sale on another instance: "
+                                + inFlashSale);
+                    }
+                    throw new IllegalArgumentException("Insufficient stock for product: " + refused);
+                }
+            } catch (RuntimeException e) {
+                hot.forEach(FlashSaleInventory.Reservation::cancel);
+                throw e;
+            }
+        }
+
+        Runnable committed = () -> {
+            hot.forEach(FlashSaleInventory.Reservation::confirm);
+            rows.keySet().forEach(productCache::invalidate);
+            shopIds.forEach(catalogVersions::productChanged);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        committed.run();
+                    } else {
+                        hot.forEach(FlashSaleInventory.Reservation::cancel);
+                    }
+                }
+            });
+        } else {
+            committed.run();
+        }
+    }
+
+    /**
+     * Uma venda pode ter começado enquanto o UPDATE da reserva esperava o lock
+     * da linha: o UPDATE reavalia o filtro na linha já marcada e não casa, e
+     * o saldo em memória foi copiado sem esta baixa. Se a venda é desta
+     * instância, a reserva desses produtos passa para a memória.
+     * @return Os produtos recusados que continuam sem reserva.
+     */
+    private List<UUID> moveToFlashSale(List<UUID> refused, Map<UUID, Integer> rows,
+            List<FlashSaleInventory.Reservation> hot) {
+        Map<UUID, Integer> turnedHot = new LinkedHashMap<>();
+        List<UUID> remaining = new ArrayList<>();
+        for (UUID id : refused) {
+            if (flashSaleInventory.isHot(id)) {
+                turnedHot.put(id, rows.get(id));
+            } else {
+                remaining.add(id);
+            }
+        }
+        if (!turnedHot.isEmpty()) {
+            hot.add(flashSaleInventory.reserve(turnedHot));
+            rows.keySet().removeAll(turnedHot.keySet());
+        }
+        return remaining;
+    }
+
+    /**
+     * Devolve ao estoque as unidades dos pedidos cancelados, na transação do
+     * cancelamento. Produtos fora de flash sale voltam na linha, num batch na
+     * mesma ordem de ID da reserva; os que estão em flash sale voltam para o
+     * estoque em memória depois do commit, sem disputar a linha. Uma venda
+     * iniciada enquanto o UPDATE espera o lock só deixa de oferecer essas
+     * unidades até terminar; a linha fica correta.
+     * @param orderIds IDs dos pedidos cancelados.
+     */
+    public void releaseStock(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        Set<UUID> shopIds = new HashSet<>();
+        for (ProductBulkRepository.OrderedQuantity ordered : productBulkRepository.findOrderedQuantities(orderIds)) {
+            quantities.put(ordered.productId(), ordered.quantity());
+            shopIds.add(ordered.shopId());
+        }
+
+        FlashSaleInventory.Release hot = flashSaleInventory.release(quantities);
+        Map<UUID, Integer> rows = new LinkedHashMap<>(quantities);
+        rows.keySet().removeAll(hot.productIds());
+        if (!rows.isEmpty()) {
+            productBulkRepository.releaseStock(rows, LocalDateTime.now());
+        }
+
+        Runnable committed = () -> {
+            hot.confirm();
+            rows.keySet().forEach(productCache::invalidate);
+            shopIds.forEach(catalogVersions::productChanged);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        committed.run();
+                    }
+                }
+            });
+        } else {
+            committed.run();
+        }
+    }
+
+    /**
+     * Coloca o produto em modo flash sale: o estoque atual passa para
+     * contadores em memória e os pedidos deixam de disputar a linha do
+     * produto. A linha é marcada com o ID desta instância, então as outras
+     * recusam reservas e alterações de estoque do produto até o fim da venda.
+     * A marcação trava a linha, então reservas cujo UPDATE já rodou terminam
+     * antes da cópia; as que ainda esperam o lock são recusadas pelo filtro e
+     * passam a reservar em memória (ver reserveStock).
+     * @param id ID do produto.
+     * @param currentUser Usuário dono da loja.
+     * @return Unidades disponíveis na venda.
+     * @throws IllegalArgumentException se o produto já estiver em flash sale
+     * em outra instância.
+     */
+    @Override
+    @Transactional
+    public long startFlashSale(UUID id, User currentUser) {
+        UUID shopId = productRepository.findShopIdById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        if (!shopServiceImpl.isShopOwner(shopId, currentUser)) {
+            throw new AccessDeniedException("You do not have permission to update this product.");
+        }
+
+        Integer stock = productBulkRepository.claimFlashSale(id, flashSaleInventory.instanceId());
+        if (stock == null) {
+            throw new IllegalArgumentException("Product is in flash sale on another instance: " + id);
+        }
+        return flashSaleInventory.start(id, stock);
+    }
+
+    /**
+     * Encerra o modo flash sale do produto e grava as baixas pendentes.
+     * @param id ID do produto.
+     * @param currentUser Usuário dono da loja.
+     */
+    @Override
+    public void endFlashSale(UUID id, User currentUser) {
+        UUID shopId = productRepository.findShopIdById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        if (!shopServiceImpl.isShopOwner(shopId, currentUser)) {
+            throw new AccessDeniedException("You do not have permission to update this product.");
+        }
+
+        if (!flashSaleInventory.end(id)) {
+            throw new IllegalArgumentException(productBulkRepository.findInFlashSale(List.of(id)).isEmpty()
+                    ? "Product is not in flash sale: " + id
+                    : "Product is in flash sale on another instance; end it there: " + id);
+        }
+        catalogVersions.productChanged(shopId);
     }
 
     /**
@@ -136,11 +481,15 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
 
-        if(!product.getShop().getOwner().getId().equals(currentUser.getId())) {
+        if(!shopServiceImpl.isShopOwner(product.getShop().getId(), currentUser)) {
             throw new AccessDeniedException("You do not have permission to delete this product.");
         }
 
         productRepository.delete(product);
+        productCache.invalidate(id);
+        productSearchService.remove(id);
+        categoryFacets.productRemoved(product.getShop().getId(), product.getCategory());
+        catalogVersions.productChanged(product.getShop().getId());
     }
 
     /**
@@ -150,8 +499,126 @@ public class ProductServiceImpl implements ProductService {
      * @return Página de produtos da loja especificada.
      */
     @Override
-    public Page<Product> getProductsByShopId(UUID shopId, Pageable pageable) {
-        return productRepository.findByShopId(shopId, pageable);
+    public Page<ProductResponseDto> getProductsByShopId(UUID shopId, Pageable pageable) {
+        return productRepository.findResponsesByShopId(shopId, pageable);
+    }
+
+    /**
+     * Obtém uma fatia de produtos sem executar a contagem total.
+     * @param pageable Objeto Pageable para paginação.
+     * @return Fatia de produtos.
+     */
+    @Override
+    public Slice<ProductResponseDto> getAllProductsSlice(Pageable pageable) {
+        return productRepository.findResponseSlice(pageable);
+    }
+
+    /**
+     * Obtém uma fatia dos produtos de uma loja sem executar a contagem total.
+     * @param shopId ID da loja.
+     * @param pageable Objeto Pageable para paginação.
+     * @return Fatia de produtos da loja.
+     */
+    @Override
+    public Slice<ProductResponseDto> getProductsSliceByShopId(UUID shopId, Pageable pageable) {
+        return productRepository.findResponseSliceByShopId(shopId, pageable);
+    }
+
+    /**
+     * Filtra produtos por categoria, loja e faixa de preço, sem count(*).
+     * Filtros nulos são ignorados.
+     */
+    @Override
+    public Slice<ProductResponseDto> getProductsByFilter(String category, UUID shopId, Integer minPrice,
+            Integer maxPrice, Pageable pageable) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice.");
+        }
+        return productRepository.findResponseSliceByFilter(category, shopId, minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * Consulta com filtros combináveis e ordenação por preço ou recência,
+     * restrita às ordenações atendidas por índices.
+     * @param criteria Filtros da consulta.
+     * @param pageable Página e ordenação.
+     * @return Fatia de produtos, sem count(*).
+     */
+    @Override
+    public Slice<ProductResponseDto> queryProducts(ProductQueryDto criteria, Pageable pageable) {
+        return productQueryRepository.find(criteria, pageable);
+    }
+
+    /**
+     * Contagem de produtos por categoria, a partir das contagens em memória.
+     * @param shopId Loja, ou null para o catálogo inteiro.
+     */
+    @Override
+    public CategoryFacetsDto getCategoryFacets(UUID shopId) {
+        Map<String, Long> counts = categoryFacets.counts(shopId);
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        return new CategoryFacetsDto(total, counts);
+    }
+
+    /**
+     * Quantidade de produtos da categoria (e da loja, se informada), sem
+     * consultar o banco.
+     */
+    @Override
+    public long countProductsByCategory(UUID shopId, String category) {
+        return categoryFacets.count(shopId, category);
+    }
+
+    /**
+     * Total aproximado de produtos, pela estimativa do Postgres.
+     */
+    @Override
+    public long estimateProductCount() {
+        return rowCountEstimator.estimateTable("products", productRepository::count);
+    }
+
+    /**
+     * Total de produtos da loja, contado e mantido em cache por um TTL curto.
+     */
+    @Override
+    public long estimateProductCountByShopId(UUID shopId) {
+        return rowCountEstimator.cachedCount("products:shop:" + shopId, () -> productRepository.countByShopId(shopId));
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return catalogVersions.products();
+    }
+
+    @Override
+    public String getShopCatalogVersion(UUID shopId) {
+        return catalogVersions.shopProducts(shopId);
+    }
+
+    /**
+     * Obtém uma página de produtos a partir de um cursor, do mais recente para o
+     * mais antigo.
+     * @param cursor Token da página, ou null para a primeira página.
+     * @param size Tamanho da página.
+     * @return Página de produtos com os tokens de navegação.
+     */
+    @Override
+    public CursorPage<Product> getProductsByCursor(String cursor, int size) {
+        return KeysetPagination.fetch(productRepository, null, cursor, size, Product::getCreatedAt, Product::getId);
+    }
+
+    /**
+     * Obtém uma página dos produtos de uma loja a partir de um cursor.
+     * @param shopId ID da loja.
+     * @param cursor Token da página, ou null para a primeira página.
+     * @param size Tamanho da página.
+     * @return Página de produtos com os tokens de navegação.
+     */
+    @Override
+    public CursorPage<Product> getProductsByShopIdAndCursor(UUID shopId, String cursor, int size) {
+        return KeysetPagination.fetch(productRepository,
+                (root, query, cb) -> cb.equal(root.get("shop").get("id"), shopId),
+                cursor, size, Product::getCreatedAt, Product::getId);
     }
 
 }
@@ -0,0 +1,69 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+
+/**
+ * Cópia imutável dos dados de um produto, segura para ser compartilhada entre
+ * requisições pelo {@link ProductSnapshotCache}. Guarda também a versão, que
+ * compõe o ETag do produto.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+public record ProductSnapshot(
+        UUID id,
+        UUID shopId,
+        String name,
+        String description,
+        Integer price,
+        String category,
+        Integer stock,
+        Long version,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * Cria o snapshot a partir da entidade. Lê apenas o ID da loja, sem
+     * inicializar o proxy lazy.
+     */
+    public static ProductSnapshot from(Product product) {
+        return new ProductSnapshot(
+                product.getId(),
+                product.getShop().getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getStock(),
+                product.getVersion(),
+                product.getCreatedAt(),
+                product.getUpdatedAt());
+    }
+
+    /**
+     * Cria uma nova entidade destacada (detached) com os dados do snapshot, para
+     * que quem a recebe possa alterá-la sem afetar o cache. A loja contém apenas
+     * o ID, o suficiente para referências de chave estrangeira.
+     */
+    public Product toProduct() {
+        Shop shop = new Shop();
+        shop.setId(shopId);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setShop(shop);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setCategory(category);
+        product.setStock(stock);
+        product.setVersion(version);
+        product.setCreatedAt(createdAt);
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+}
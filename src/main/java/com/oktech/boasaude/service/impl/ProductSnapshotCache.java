@@ -0,0 +1,77 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oktech.boasaude.repository.ProductRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache read-through de snapshots de produtos, limitado por tamanho.
+ * Misses simultâneos para o mesmo ID aguardam uma única carga no banco
+ * (single-flight), então um produto muito acessado gera no máximo uma consulta
+ * por expiração. Hit ratio e tempo de carga ficam em /actuator/metrics com a
+ * tag cache=productSnapshots.
+ * 
+ * @author João Martins
+ * @version 1.0
+ */
+@Component
+public class ProductSnapshotCache {
+
+    public static final String CACHE_NAME = "productSnapshots";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSnapshotCache.class);
+
+    private final ProductRepository productRepository;
+
+    private final Cache<UUID, ProductSnapshot> cache;
+
+    public ProductSnapshotCache(ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${products.cache.max-size:10000}") long maxSize,
+            @Value("${products.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Obtém o snapshot do produto, carregando do banco em caso de miss.
+     * Produtos inexistentes não são armazenados em cache.
+     *
+     * @param productId ID do produto.
+     * @return O snapshot ou null se o produto não existir.
+     */
+    public ProductSnapshot get(UUID productId) {
+        return cache.get(productId, id -> {
+            logger.debug("Product cache miss for ID: {}", id);
+            return productRepository.findById(id).map(ProductSnapshot::from).orElse(null);
+        });
+    }
+
+    /**
+     * Remove o produto do cache. Deve ser chamado em toda alteração do produto,
+     * inclusive de estoque.
+     *
+     * @param productId ID do produto alterado.
+     */
+    public void invalidate(UUID productId) {
+        if (productId != null) {
+            cache.invalidate(productId);
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.oktech.boasaude.service.impl;
 
+import com.oktech.boasaude.dto.CursorPage;
 import com.oktech.boasaude.dto.ShopCreateRequestDto;
 import com.oktech.boasaude.dto.ShopResponseDto;
 import com.oktech.boasaude.entity.Shop;
 import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.KeysetPagination;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.repository.RowCountEstimator;
 import com.oktech.boasaude.repository.ShopRepository;
+import com.oktech.boasaude.service.ProductSearchService;
 import com.oktech.boasaude.service.ShopService;
 
 
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * * Implementação do serviço de loja.
@@ -40,14 +47,35 @@ public class ShopServiceImpl implements ShopService {
 
     private UserServiceImpl userService;
 
+    private RowCountEstimator rowCountEstimator;
+
+    private CatalogVersions catalogVersions;
+
+    private CategoryFacets categoryFacets;
+
+    private ProductRepository productRepository;
+
+    private ProductSnapshotCache productCache;
+
+    private ProductSearchService productSearchService;
+
     private static final String CNPJ_REGEX = "^(\\d{2}\\.\\d{3}\\.\\d{3}/\\d{4}-\\d{2}|\\d{14})$"; // Formato
                                                                                                    // XX.XXX.XXX/XXXX-XX
                                                                                                    // ou XXXXXXXXXXXXXXX
     private static final Pattern CNPJ_PATTERN = Pattern.compile(CNPJ_REGEX); // Regex para validar CNPJ
 
-    public ShopServiceImpl(ShopRepository shopRepository, UserServiceImpl userService) {
+    public ShopServiceImpl(ShopRepository shopRepository, UserServiceImpl userService,
+            RowCountEstimator rowCountEstimator, CatalogVersions catalogVersions, CategoryFacets categoryFacets,
+            ProductRepository productRepository, ProductSnapshotCache productCache,
+            ProductSearchService productSearchService) {
         this.shopRepository = shopRepository;
         this.userService = userService;
+        this.rowCountEstimator = rowCountEstimator;
+        this.catalogVersions = catalogVersions;
+        this.categoryFacets = categoryFacets;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.productSearchService = productSearchService;
     }
 
     @Override
@@ -71,6 +99,7 @@ public class ShopServiceImpl implements ShopService {
         Shop shop = new Shop(dto, user); // Cria uma nova loja com os dados do DTO e o usuário
 
         Shop savedShop = shopRepository.save(shop); // Salva a loja no repositório
+        catalogVersions.shopChanged();
 
         return new ShopResponseDto(savedShop); // Retorna a resposta com os dados da loja salva
     }
@@ -83,18 +112,51 @@ public class ShopServiceImpl implements ShopService {
     }
     
 
+    /**
+     * Verifica se o usuário é dono da loja.
+     * Quando o token traz o shopId (modo stateless) a verificação não consulta
+     * o banco; caso contrário, usa uma consulta de existência por ID e
+     * proprietário, sem carregar a entidade do proprietário.
+     */
+    @Override
+    public boolean isShopOwner(UUID shopId, User user) {
+        if (shopId.equals(user.getShopId())) {
+            return true;
+        }
+        return shopRepository.existsByIdAndOwnerId(shopId, user.getId());
+    }
+
     // Obtém a loja associada ao usuário
     @Override
     public ShopResponseDto getShopbyuser(User user) {
-        return shopRepository.findByOwnerId(user.getId()) // Se a loja for encontrada, converte para ShopResponseDto
-                .map(ShopResponseDto::new) // Retorna a loja encontrada como ShopResponseDto
+        return shopRepository.findResponseByOwnerId(user.getId()) // Projeção direto no ShopResponseDto
                 .orElseThrow(() -> new IllegalArgumentException("Loja não encontrada para o usuário."));
     }
 
     @Override
     public Page<ShopResponseDto> getAllShops(Pageable pageable) {
-        return shopRepository.findAll(pageable)
-                .map(shop -> new ShopResponseDto(shop)); // Converte cada loja para ShopResponseDto
+        return shopRepository.findAllResponses(pageable); // Projeção direto no ShopResponseDto
+    }
+
+    @Override
+    public Slice<ShopResponseDto> getAllShopsSlice(Pageable pageable) {
+        return shopRepository.findResponseSlice(pageable);
+    }
+
+    @Override
+    public long estimateShopCount() {
+        return rowCountEstimator.estimateTable("shops", shopRepository::count);
+    }
+
+    @Override
+    public String getShopsVersion() {
+        return catalogVersions.shops();
+    }
+
+    @Override
+    public CursorPage<ShopResponseDto> getShopsByCursor(String cursor, int size) {
+        return KeysetPagination.fetch(shopRepository, null, cursor, size, Shop::getCreatedAt, Shop::getId)
+                .map(ShopResponseDto::new);
     }
 
     // Valida o CNPJ usando o padrão definido
@@ -117,7 +179,16 @@ public class ShopServiceImpl implements ShopService {
             throw new AccessDeniedException("You are not the owner of this shop");
         }
 
+        // Os produtos da loja são removidos em cascata; os IDs são lidos antes
+        // para tirá-los do cache e do índice de busca
+        List<UUID> productIds = productRepository.findIdsByShopId(id);
         shopRepository.delete(shop);
+        productIds.forEach(productId -> {
+            productCache.invalidate(productId);
+            productSearchService.remove(productId);
+        });
+        catalogVersions.shopDeleted(id);
+        categoryFacets.shopDeleted(id);
     }
 
     @Override
@@ -145,6 +216,7 @@ public class ShopServiceImpl implements ShopService {
         shop.setDescription(dto.description());
 
         shopRepository.save(shop);
+        catalogVersions.shopChanged();
 
         return new ShopResponseDto(shop);
     }
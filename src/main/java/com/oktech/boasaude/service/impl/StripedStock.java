@@ -0,0 +1,104 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estoque de um produto dividido em faixas (stripes), cada uma com seu
+ * próprio contador. Uma reserva faz CAS só na faixa sorteada, então compras
+ * simultâneas do mesmo produto raramente disputam o mesmo contador.
+ * Quando a faixa sorteada não tem unidades suficientes, o saldo de todas as
+ * faixas é recolhido e redistribuído por igual (rebalanceamento), sob um
+ * lock: a decisão de recusar uma reserva vê o saldo total exato, então o
+ * estoque nunca fica negativo nem uma reserva é recusada havendo saldo.
+ *
+ * @author João Martins
+ * @version 1.0
+ */
+final class StripedStock {
+
+    private final AtomicLongArray stripes;
+
+    StripedStock(long units, int stripeCount) {
+        if (units < 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("Invalid stock or stripe count.");
+        }
+        stripes = new AtomicLongArray(stripeCount);
+        distribute(units);
+    }
+
+    /**
+     * Reserva a quantidade, se houver saldo.
+     *
+     * @return true se a quantidade foi reservada.
+     */
+    boolean tryReserve(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero.");
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(stripes.length());
+        long current;
+        while ((current = stripes.get(stripe)) >= quantity) {
+            if (stripes.compareAndSet(stripe, current, current - quantity)) {
+                return true;
+            }
+        }
+        return rebalanceAndReserve(quantity);
+    }
+
+    /**
+     * Devolve unidades de uma reserva desfeita.
+     */
+    void release(int quantity) {
+        stripes.addAndGet(ThreadLocalRandom.current().nextInt(stripes.length()), quantity);
+    }
+
+    /**
+     * Saldo aproximado: as faixas são lidas uma a uma, sem lock.
+     */
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            total += stripes.get(i);
+        }
+        return total;
+    }
+
+    int stripeCount() {
+        return stripes.length();
+    }
+
+    /**
+     * Recolhe o saldo de todas as faixas, reserva a partir do total e
+     * redistribui o restante. Enquanto o lock está tomado as faixas ficam
+     * zeradas, então nenhum CAS concorrente consegue reservar; quem chegar
+     * aqui em seguida vê o saldo já redistribuído.
+     */
+    private synchronized boolean rebalanceAndReserve(int quantity) {
+        long total = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            total += stripes.getAndSet(i, 0);
+        }
+        boolean reserved = total >= quantity;
+        if (reserved) {
+            total -= quantity;
+        }
+        distribute(total);
+        return reserved;
+    }
+
+    /**
+     * Soma (em vez de atribuir) para não perder devoluções concorrentes.
+     */
+    private void distribute(long units) {
+        int count = stripes.length();
+        long share = units / count;
+        long remainder = units % count;
+        for (int i = 0; i < count; i++) {
+            long amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                stripes.addAndGet(i, amount);
+            }
+        }
+    }
+}
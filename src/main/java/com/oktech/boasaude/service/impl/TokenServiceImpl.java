@@ -1,76 +1,227 @@
 package com.oktech.boasaude.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.oktech.boasaude.config.security.TokenRevocationList;
+import com.oktech.boasaude.config.security.UserPrincipal;
+import com.oktech.boasaude.dto.TokenResponse;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.ShopRepository;
 import com.oktech.boasaude.service.TokenService;
 import com.oktech.boasaude.service.UserService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 @Service
 public class TokenServiceImpl implements TokenService {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenServiceImpl.class);
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final String ISSUER = "oktech";
+
+    public static final String VERIFIED_CACHE_NAME = "verifiedTokens";
+
+    private static final String TYPE_CLAIM = "tokenType";
+
+    private static final String ACCESS_TYPE = "access";
+
+    private static final String REFRESH_TYPE = "refresh";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
 
     private final UserService userService;
 
-    public TokenServiceImpl(UserService userService) {
+    private final ShopRepository shopRepository;
+
+    private final TokenRevocationList revocationList;
+
+    @Value("${jwt.access-token-ttl-seconds:900}")
+    private long accessTokenTtlSeconds;
+
+    @Value("${jwt.refresh-token-ttl-seconds:604800}")
+    private long refreshTokenTtlSeconds;
+
+    /**
+     * Algoritmo e verificador construídos uma única vez por segredo.
+     * Substituídos atomicamente em {@link #reloadSecret(String)}.
+     */
+    private volatile JwtSigner signer;
+
+    /**
+     * Tokens já verificados, indexados pelo digest SHA-256 do token e removidos
+     * quando o claim exp do token é atingido.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public TokenServiceImpl(UserService userService,
+            ShopRepository shopRepository,
+            TokenRevocationList revocationList,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
         this.userService = userService;
+        this.shopRepository = shopRepository;
+        this.revocationList = revocationList;
+        this.signer = JwtSigner.of(secret);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, VERIFIED_CACHE_NAME);
     }
 
     @Override
     public String generateToken(String email) {
-        try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
+        User user = findUser(email);
+        return generateAccessToken(user, findOwnedShopId(user));
+    }
+
+    @Override
+    public TokenResponse issueTokens(String email) {
+        User user = findUser(email);
+        return new TokenResponse(generateAccessToken(user, findOwnedShopId(user)), generateRefreshToken(user));
+    }
 
-            var user = userService.getUserByEmail(email);
+    @Override
+    public TokenResponse refreshTokens(String refreshToken) {
+        DecodedJWT decodedJWT = getDecodedToken(refreshToken);
+        if (decodedJWT == null || !isRefreshToken(decodedJWT)) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
 
-            if (user == null) {
-                throw new IllegalArgumentException("User not found with email: " + email);
-            }
+        UserPrincipal claims = getPrincipalFromToken(decodedJWT);
+        if (claims == null || revocationList.isRevoked(decodedJWT.getId(), claims.id(),
+                decodedJWT.getIssuedAtAsInstant())) {
+            throw new IllegalArgumentException("Refresh token revoked");
+        }
 
-            var userId = user.getId();
+        // Consome o token antes de emitir o novo par: de duas renovações
+        // simultâneas com o mesmo token, só uma passa
+        if (!revocationList.revokeToken(decodedJWT.getId(), decodedJWT.getExpiresAtAsInstant())) {
+            throw new IllegalArgumentException("Refresh token revoked");
+        }
 
-            String token = JWT.create()
-                    .withIssuer("oktech")
+        // Renovação sempre relê a conta, para refletir mudanças de papel ou de loja
+        User user = userService.getUserById(claims.id());
+        if (user == null || !user.isEnabled()) {
+            throw new IllegalArgumentException("User not found or inactive: " + claims.id());
+        }
+
+        return new TokenResponse(generateAccessToken(user, findOwnedShopId(user)), generateRefreshToken(user));
+    }
+
+    private User findUser(String email) {
+        var user = userService.getUserByEmail(email);
+
+        if (user == null) {
+            throw new IllegalArgumentException("User not found with email: " + email);
+        }
+        return user;
+    }
+
+    private UUID findOwnedShopId(User user) {
+        if (user.getRole() == null || user.getRole() == UserRole.USER) {
+            return null;
+        }
+        return shopRepository.findByOwnerId(user.getId()).map(Shop::getId).orElse(null);
+    }
+
+    private String generateAccessToken(User user, UUID shopId) {
+        try {
+            var builder = JWT.create()
+                    .withIssuer(ISSUER)
                     .withSubject(user.getUsername())
-                    .withClaim("userId", userId.toString())
-                    .withClaim("role", user.getAuthorities().toString())
-                    .withExpiresAt(getExpirationTime())
-                    .sign(algorithm);
+                    .withJWTId(UUID.randomUUID().toString())
+                    .withIssuedAt(Instant.now())
+                    .withClaim(TYPE_CLAIM, ACCESS_TYPE)
+                    .withClaim("userId", user.getId().toString())
+                    .withClaim("name", user.getName())
+                    .withClaim("role", user.getRole().name())
+                    .withClaim("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                    .withExpiresAt(Instant.now().plusSeconds(accessTokenTtlSeconds));
+
+            if (shopId != null) {
+                builder.withClaim("shopId", shopId.toString());
+            }
 
-            return token;
+            return builder.sign(signer.algorithm());
         } catch (JWTCreationException exception) {
             logger.error("Error creating JWT token", exception);
             return null;
         }
     }
 
-    public DecodedJWT getDecodedToken(String token) {
+    private String generateRefreshToken(User user) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("oktech")
-                    .build()
-                    .verify(token);
-        } catch (JWTVerificationException e) {
-            logger.error("Invalid JWT token", e);
+            return JWT.create()
+                    .withIssuer(ISSUER)
+                    .withSubject(user.getUsername())
+                    .withJWTId(UUID.randomUUID().toString())
+                    .withIssuedAt(Instant.now())
+                    .withClaim(TYPE_CLAIM, REFRESH_TYPE)
+                    .withClaim("userId", user.getId().toString())
+                    .withExpiresAt(Instant.now().plusSeconds(refreshTokenTtlSeconds))
+                    .sign(signer.algorithm());
+        } catch (JWTCreationException exception) {
+            logger.error("Error creating JWT refresh token", exception);
             return null;
         }
     }
 
+    /**
+     * Decodifica o token, reutilizando o resultado de uma verificação anterior
+     * quando o mesmo token já foi validado com o segredo atual.
+     */
+    @Override
+    public DecodedJWT getDecodedToken(String token) {
+        JwtSigner current = signer;
+        String key = digest(token);
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.signer() == current) {
+            return cached.jwt();
+        }
+
+        DecodedJWT decoded = verify(current, token);
+        if (decoded != null) {
+            verifiedTokens.put(key, new VerifiedToken(decoded, current));
+        }
+        return decoded;
+    }
+
     @Override
     public UUID getUserIdFromToken(String token) {
         try {
@@ -86,7 +237,117 @@ public class TokenServiceImpl implements TokenService {
         }
     }
 
-    private Instant getExpirationTime() {
-        return Instant.now().plusSeconds(3600); // 1 hour
+    @Override
+    public UserPrincipal getPrincipalFromToken(DecodedJWT decodedJWT) {
+        String userId = decodedJWT.getClaim("userId").asString();
+        if (userId == null) {
+            return null;
+        }
+
+        UserRole role = null;
+        String roleClaim = decodedJWT.getClaim("role").asString();
+        if (roleClaim != null) {
+            try {
+                role = UserRole.valueOf(roleClaim);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Token without typed role claim: {}", roleClaim);
+            }
+        }
+
+        String shopId = decodedJWT.getClaim("shopId").asString();
+        return new UserPrincipal(
+                UUID.fromString(userId),
+                decodedJWT.getClaim("name").asString(),
+                decodedJWT.getSubject(),
+                null,
+                role,
+                true,
+                shopId != null ? UUID.fromString(shopId) : null);
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthoritiesFromToken(DecodedJWT decodedJWT) {
+        List<String> roles = decodedJWT.getClaim("roles").asList(String.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    @Override
+    public boolean isRefreshToken(DecodedJWT decodedJWT) {
+        return REFRESH_TYPE.equals(decodedJWT.getClaim(TYPE_CLAIM).asString());
+    }
+
+    /**
+     * Troca o segredo de assinatura, reconstruindo o algoritmo e o verificador.
+     * Tokens verificados com o segredo anterior deixam de ser aceitos pelo cache.
+     */
+    @Override
+    public void reloadSecret(String secret) {
+        this.signer = JwtSigner.of(secret);
+        verifiedTokens.invalidateAll();
+        logger.info("JWT secret reloaded");
+    }
+
+    /**
+     * Verificação completa (HMAC + parse), sem passar pelo cache.
+     */
+    DecodedJWT verify(String token) {
+        return verify(signer, token);
+    }
+
+    private DecodedJWT verify(JwtSigner current, String token) {
+        try {
+            return current.verifier().verify(token);
+        } catch (JWTVerificationException e) {
+            logger.error("Invalid JWT token", e);
+            return null;
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private record JwtSigner(Algorithm algorithm, JWTVerifier verifier) {
+        static JwtSigner of(String secret) {
+            Algorithm algorithm = Algorithm.HMAC256(secret);
+            return new JwtSigner(algorithm, JWT.require(algorithm).withIssuer(ISSUER).build());
+        }
+    }
+
+    private record VerifiedToken(DecodedJWT jwt, JwtSigner signer) {
+    }
+
+    /**
+     * Expira cada entrada no instante do claim exp do próprio token.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Instant expiresAt = value.jwt().getExpiresAtAsInstant();
+            if (expiresAt == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.oktech.boasaude.service.impl;
 
+import java.util.Objects;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -10,6 +11,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.oktech.boasaude.config.security.TokenRevocationList;
+import com.oktech.boasaude.config.security.UserPrincipalCache;
 import com.oktech.boasaude.dto.CreateUserDto;
 
 import com.oktech.boasaude.entity.User;
@@ -39,11 +42,24 @@ public class UserServiceImpl implements UserService {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Cache de principais autenticados, invalidado quando a conta muda.
+     */
+    private final UserPrincipalCache principalCache;
+
+    /**
+     * Lista de tokens revogados, usada para invalidar tokens de contas desativadas.
+     */
+    private final TokenRevocationList revocationList;
+
     private static Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
-    public UserServiceImpl(UserRepository userRepository, @Autowired PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, @Autowired PasswordEncoder passwordEncoder,
+            UserPrincipalCache principalCache, TokenRevocationList revocationList) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
     }
 
     /**
@@ -101,7 +117,8 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Atualiza um usuário existente.
+     * Atualiza um usuário existente. Se o e-mail ou a senha mudarem, os
+     * tokens já emitidos são revogados.
      * 
      * @param id   ID do usuário a ser atualizado.
      * @param user Objeto User com os novos dados.
@@ -113,11 +130,19 @@ public class UserServiceImpl implements UserService {
 
         if (existingUser != null) {
             logger.info("Updating user with ID: {}", id);
+            boolean credentialsChanged = !Objects.equals(existingUser.getEmail(), user.getEmail())
+                    || !Objects.equals(existingUser.getPassword(), user.getPassword());
             existingUser.setName(user.getName());
             existingUser.setEmail(user.getEmail());
             existingUser.setCpf(user.getCpf());
             existingUser.setPassword(user.getPassword());
-            return userRepository.save(existingUser);
+            User savedUser = userRepository.save(existingUser);
+            principalCache.invalidate(id);
+            if (credentialsChanged) {
+                // Tokens emitidos antes valem com o e-mail nos claims e sem a nova senha
+                revocationList.revokeUser(id);
+            }
+            return savedUser;
         }
         logger.error("User not found for ID: {}", id);
         throw new IllegalArgumentException("User not found: " + id);
@@ -138,6 +163,8 @@ public class UserServiceImpl implements UserService {
             logger.info("User found for ID: {}", id);
             existingUser.setActive(false); // Soft delete
             userRepository.save(existingUser);
+            principalCache.invalidate(id);
+            revocationList.revokeUser(id);
         } else {
             logger.error("User not found for ID: {}", id);
             throw new IllegalArgumentException("User not found: " + id);
@@ -164,7 +191,8 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Atualiza o papel de um usuário.
+     * Atualiza o papel de um usuário. Um rebaixamento revoga os tokens já
+     * emitidos, para que o usuário entre de novo com o papel novo.
      * 
      * @param userId   ID do usuário a ser atualizado.
      * @param userRole Novo papel do usuário.
@@ -177,8 +205,15 @@ public class UserServiceImpl implements UserService {
             logger.error("User not found with ID: {}", userId);
             throw new IllegalArgumentException("User not found: " + userId);
         }
+        UserRole previousRole = user.getRole();
         user.setRole(userRole);
         userRepository.save(user);
+        principalCache.invalidate(userId);
+        if (previousRole != null && !userRole.includes(previousRole)) {
+            // No modo stateless as autoridades vêm dos claims: tokens antigos
+            // manteriam o papel anterior até expirar
+            revocationList.revokeUser(userId);
+        }
         logger.info("User role updated successfully for ID: {}", userId);
         return true;
     }
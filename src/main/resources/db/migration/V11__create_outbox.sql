@@ -0,0 +1,18 @@
+-- Eventos de domínio gravados na mesma transação da mudança que os gerou.
+-- O dispatcher lê em lotes com FOR UPDATE SKIP LOCKED, entrega aos handlers
+-- e apaga as linhas entregues. next_attempt_at nulo marca um evento que
+-- esgotou as tentativas e aguarda intervenção manual.
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW(),
+    last_error TEXT
+);
+
+-- Só os eventos ainda entregáveis entram no índice do polling
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox(next_attempt_at, id) WHERE next_attempt_at IS NOT NULL;
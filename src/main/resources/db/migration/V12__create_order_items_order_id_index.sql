@@ -0,0 +1,3 @@
+-- order_items só tinha índice na PK: a checagem de loja da atualização de
+-- status em lote e os fetch joins de itens por pedido percorriam a tabela.
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
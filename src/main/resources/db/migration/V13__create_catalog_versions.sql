@@ -0,0 +1,10 @@
+-- Versões do catálogo compartilhadas entre as instâncias, base dos ETags das
+-- listagens. scope é 'products', 'shops' ou 'shop-products:<id da loja>'.
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    scope VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- Leitura incremental das versões alteradas desde a última sincronização
+CREATE INDEX IF NOT EXISTS idx_catalog_versions_updated_at ON catalog_versions(updated_at);
@@ -0,0 +1,5 @@
+-- Instância que atende a flash sale do produto, ou NULL fora de venda. As
+-- demais instâncias recusam reservas e alterações de estoque do produto
+-- enquanto a coluna estiver preenchida, já que o saldo está na memória da
+-- dona da venda.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS flash_sale_owner VARCHAR(128);
@@ -0,0 +1,11 @@
+-- Paginação por cursor ordena por (created_at, id); linhas sem created_at
+-- ficariam fora da ordenação estável
+UPDATE products SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+UPDATE shops SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+UPDATE orders SET created_at = NOW() WHERE created_at IS NULL;
+
+-- Índices compostos que atendem a ordenação (created_at, id) nos dois sentidos
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_shop_id_created_at_id ON products(shop_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_shops_created_at_id ON shops(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_created_at_id ON orders(user_id, created_at, id);
@@ -0,0 +1,16 @@
+-- Índices das ordenações aceitas por /v1/products/query. A ordenação por
+-- recência por loja usa idx_products_shop_id_created_at_id (V6).
+
+-- Preço dentro de uma categoria; também atende o filtro só por categoria
+CREATE INDEX IF NOT EXISTS idx_products_category_price_id ON products(category, price, id);
+DROP INDEX IF EXISTS idx_products_category;
+
+-- Recência dentro de uma categoria
+CREATE INDEX IF NOT EXISTS idx_products_category_created_at_id ON products(category, created_at, id);
+
+-- Apenas produtos em estoque, por preço ou recência
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_price_id ON products(price, id) WHERE stock > 0;
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_created_at_id ON products(created_at, id) WHERE stock > 0;
+
+-- Busca por prefixo do nome, sem diferenciar maiúsculas
+CREATE INDEX IF NOT EXISTS idx_products_lower_name_prefix ON products(lower(name) text_pattern_ops);
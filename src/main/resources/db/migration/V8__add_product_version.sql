@@ -0,0 +1,4 @@
+-- Versão do produto para o controle otimista da edição pelo lojista.
+-- A reserva de estoque e a alteração em lote também incrementam a coluna,
+-- então uma edição feita sobre uma leitura antiga é recusada.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,123 @@
+-- Preço unitário congelado no checkout e totais na linha do pedido, para o
+-- histórico não depender de order_items nem do preço atual em products.
+-- Roda fora de transação (ver V9__add_order_totals.sql.conf): o backfill
+-- confirma cada lote, então só a passada final trava as tabelas inteiras e
+-- o backfill pode ser retomado se for interrompido.
+
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS unit_price INTEGER;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_amount BIGINT;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS item_count INTEGER;
+
+-- Instâncias antigas continuam fazendo checkout durante e depois da
+-- migração: gravam o pedido e só depois os itens, sem unit_price nem totais.
+-- Para esses itens o trigger usa o preço atual do produto e soma o item aos
+-- totais do pedido, então um pedido zerado por um lote antes de os itens
+-- chegarem fica certo e o NOT NULL não quebra o checkout antigo. Os pedidos
+-- tocados durante o backfill são anotados e recalculados na passada final,
+-- porque um lote pode ter lido os itens antes do trigger. Pode ser removido
+-- quando não houver mais instâncias sem a coluna unit_price.
+CREATE TABLE IF NOT EXISTS v9_legacy_orders (order_id UUID PRIMARY KEY);
+
+CREATE OR REPLACE FUNCTION fill_legacy_order_item() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.unit_price IS NULL THEN
+        NEW.unit_price := COALESCE((SELECT p.price FROM products p WHERE p.id = NEW.product_id), 0);
+        UPDATE orders
+           SET total_amount = total_amount + NEW.unit_price::BIGINT * NEW.quantity,
+               item_count = item_count + NEW.quantity
+         WHERE id = NEW.order_id;
+        INSERT INTO v9_legacy_orders (order_id) VALUES (NEW.order_id) ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NEW;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS order_items_legacy_price ON order_items;
+CREATE TRIGGER order_items_legacy_price
+    BEFORE INSERT ON order_items
+    FOR EACH ROW EXECUTE FUNCTION fill_legacy_order_item();
+
+-- Itens existentes recebem o preço atual do produto, a melhor aproximação disponível
+DO $$
+DECLARE
+    updated INTEGER;
+BEGIN
+    LOOP
+        UPDATE order_items oi
+           SET unit_price = COALESCE((SELECT p.price FROM products p WHERE p.id = oi.product_id), 0)
+         WHERE oi.id IN (SELECT id FROM order_items WHERE unit_price IS NULL LIMIT 5000);
+        GET DIAGNOSTICS updated = ROW_COUNT;
+        EXIT WHEN updated = 0;
+        COMMIT;
+    END LOOP;
+END $$;
+
+DO $$
+DECLARE
+    updated INTEGER;
+BEGIN
+    LOOP
+        UPDATE orders o
+           SET total_amount = t.total_amount,
+               item_count = t.item_count
+          FROM (SELECT b.id,
+                       COALESCE(SUM(oi.unit_price::BIGINT * oi.quantity), 0) AS total_amount,
+                       COALESCE(SUM(oi.quantity), 0) AS item_count
+                  FROM (SELECT id FROM orders WHERE total_amount IS NULL LIMIT 5000) b
+                  LEFT JOIN order_items oi ON oi.order_id = b.id
+                 GROUP BY b.id) t
+         WHERE o.id = t.id;
+        GET DIAGNOSTICS updated = ROW_COUNT;
+        EXIT WHEN updated = 0;
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- A última passada roda com as tabelas travadas e na mesma transação do
+-- SET NOT NULL: completa o que os lotes não viram e recalcula os pedidos que
+-- receberam itens de instâncias antigas durante o backfill. Os defaults só
+-- valem a partir daqui, para pedidos de instâncias antigas começarem em zero
+-- e o trigger somar os itens.
+BEGIN;
+
+LOCK TABLE orders, order_items IN SHARE ROW EXCLUSIVE MODE;
+
+UPDATE order_items oi
+   SET unit_price = COALESCE((SELECT p.price FROM products p WHERE p.id = oi.product_id), 0)
+ WHERE oi.unit_price IS NULL;
+
+UPDATE orders o
+   SET total_amount = t.total_amount,
+       item_count = t.item_count
+  FROM (SELECT b.id,
+               COALESCE(SUM(oi.unit_price::BIGINT * oi.quantity), 0) AS total_amount,
+               COALESCE(SUM(oi.quantity), 0) AS item_count
+          FROM orders b
+          LEFT JOIN order_items oi ON oi.order_id = b.id
+         WHERE b.total_amount IS NULL
+            OR b.id IN (SELECT order_id FROM v9_legacy_orders)
+         GROUP BY b.id) t
+ WHERE o.id = t.id;
+
+ALTER TABLE order_items ALTER COLUMN unit_price SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN total_amount SET DEFAULT 0;
+ALTER TABLE orders ALTER COLUMN total_amount SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN item_count SET DEFAULT 0;
+ALTER TABLE orders ALTER COLUMN item_count SET NOT NULL;
+
+-- Sem backfill concorrente, a soma do trigger já é exata e não precisa mais
+-- ser anotada
+CREATE OR REPLACE FUNCTION fill_legacy_order_item() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.unit_price IS NULL THEN
+        NEW.unit_price := COALESCE((SELECT p.price FROM products p WHERE p.id = NEW.product_id), 0);
+        UPDATE orders
+           SET total_amount = total_amount + NEW.unit_price::BIGINT * NEW.quantity,
+               item_count = item_count + NEW.quantity
+         WHERE id = NEW.order_id;
+    END IF;
+    RETURN NEW;
+END $$ LANGUAGE plpgsql;
+
+DROP TABLE v9_legacy_orders;
+
+COMMIT;
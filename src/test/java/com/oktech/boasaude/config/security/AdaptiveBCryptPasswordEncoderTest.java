@@ -0,0 +1,35 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    public void testCostOfReadsBCryptHash() {
+        assertEquals(5, BCryptCostCalibrator.costOf(new BCryptPasswordEncoder(5).encode("secret")));
+        assertEquals(-1, BCryptCostCalibrator.costOf("plain-text"));
+        assertEquals(-1, BCryptCostCalibrator.costOf(null));
+    }
+
+    @Test
+    public void testUpgradeEncodingOnlyRaisesCost() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        // A hash from an instance calibrated higher is kept, so logins don't flip-flop
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    @Test
+    public void testCalibrationStaysWithinBounds() {
+        assertEquals(4, BCryptCostCalibrator.calibrate(0, 4, 6));
+        assertEquals(6, BCryptCostCalibrator.calibrate(1_000_000, 4, 6));
+    }
+}
@@ -0,0 +1,78 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.oktech.boasaude.config.exception.PasswordHashingRejectedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder encoder;
+
+    /**
+     * Encoder que bloqueia até o teste liberar, simulando um BCrypt lento.
+     */
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 5000, 3, new SimpleMeterRegistry());
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        Thread.sleep(100);
+
+        PasswordHashingRejectedException exception = assertThrows(PasswordHashingRejectedException.class,
+                () -> encoder.encode("c"));
+        assertEquals(3, exception.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejectsWhenHashingTimesOut() {
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 50, 1, new SimpleMeterRegistry());
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("a"));
+    }
+}
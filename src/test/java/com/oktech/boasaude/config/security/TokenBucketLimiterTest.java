@@ -0,0 +1,45 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketLimiterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    public void testBurstIsLimitedToCapacity() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 6, 8);
+
+        assertTrue(limiter.tryAcquire("a@test.com", 0));
+        assertTrue(limiter.tryAcquire("a@test.com", 0));
+        assertTrue(limiter.tryAcquire("a@test.com", 0));
+        assertFalse(limiter.tryAcquire("a@test.com", 0));
+        assertTrue(limiter.tryAcquire("b@test.com", 0));
+    }
+
+    @Test
+    public void testTokensRefillOverTime() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 6, 8);
+
+        assertTrue(limiter.tryAcquire("10.0.0.1", 0));
+        assertFalse(limiter.tryAcquire("10.0.0.1", MINUTE / 12));
+        assertTrue(limiter.tryAcquire("10.0.0.1", MINUTE / 5));
+        assertEquals(10, limiter.retryAfterSeconds());
+    }
+
+    @Test
+    public void testIdleBucketsAreEvicted() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 2, 8);
+        limiter.tryAcquire("idle", 0);
+        limiter.tryAcquire("active", MINUTE);
+
+        assertEquals(1, limiter.evictIdle(MINUTE * 3 / 2));
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,89 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TokenRevocationListTest {
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    public void setUp() {
+        this.revocationList = new TokenRevocationList(1000, 0.01, 3600);
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() {
+        revocationList.revokeToken("jti-1", Instant.now().plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked("jti-1", UUID.randomUUID(), Instant.now()));
+        assertFalse(revocationList.isRevoked("jti-2", UUID.randomUUID(), Instant.now()));
+    }
+
+    @Test
+    public void testRevokedUserRejectsAnyToken() {
+        UUID userId = UUID.randomUUID();
+        revocationList.revokeUser(userId);
+
+        assertTrue(revocationList.isRevoked("any-jti", userId, Instant.now().minusSeconds(30)));
+        assertTrue(revocationList.isRevoked(null, userId, null));
+    }
+
+    @Test
+    public void testTokensIssuedAfterUserRevocationAreAccepted() {
+        UUID userId = UUID.randomUUID();
+        revocationList.revokeUser(userId);
+
+        // A new login after a demotion carries the new role in its claims
+        assertFalse(revocationList.isRevoked("new-jti", userId, Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    public void testExpiredRevocationIsPurged() {
+        revocationList.revokeToken("jti-1", Instant.now().minusSeconds(1));
+
+        revocationList.purgeExpired();
+
+        assertFalse(revocationList.isRevoked("jti-1", null, Instant.now()));
+    }
+
+    @Test
+    public void testConcurrentRevocationsOfTheSameTokenHaveOneWinner() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return revocationList.revokeToken("refresh-jti", Instant.now().plusSeconds(60));
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    winners++;
+                }
+            }
+            assertEquals(1, winners);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.oktech.boasaude.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.ProductBulkRepository;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.service.ProductSearchService;
+import com.oktech.boasaude.service.impl.CatalogVersions;
+import com.oktech.boasaude.service.impl.CategoryFacets;
+import com.oktech.boasaude.service.impl.FlashSaleInventory;
+import com.oktech.boasaude.service.impl.ProductServiceImpl;
+import com.oktech.boasaude.service.impl.ProductSnapshotCache;
+import com.oktech.boasaude.service.impl.ShopServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductControllerETagTest {
+
+    private static final UUID PRODUCT = UUID.randomUUID();
+
+    private static final UUID SHOP = UUID.randomUUID();
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductBulkRepository productBulkRepository;
+
+    @Mock
+    private ShopServiceImpl shopServiceImpl;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private CategoryFacets categoryFacets;
+
+    private final User owner = new User();
+
+    // The products row; every write bumps the version the way @Version and the bulk SQL do
+    private long rowVersion;
+
+    private int rowStock = 10;
+
+    private ProductServiceImpl productService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ProductSnapshotCache productCache = new ProductSnapshotCache(productRepository, new SimpleMeterRegistry(),
+                100, 600);
+        productService = new ProductServiceImpl(productRepository, shopServiceImpl, productSearchService, null,
+                productCache, catalogVersions, productBulkRepository, categoryFacets, null,
+                new FlashSaleInventory(productBulkRepository, productCache, new SimpleMeterRegistry(), 4,
+                        "test-instance"));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ProductController(productService, productSearchService,
+                        new CatalogHttpCaching(30, 60), null, 600000))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        Mockito.lenient().when(productRepository.findById(PRODUCT)).thenAnswer(invocation -> Optional.of(row()));
+        Mockito.lenient().when(productRepository.save(Mockito.any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            rowStock = saved.getStock();
+            saved.setVersion(++rowVersion);
+            return saved;
+        });
+        Mockito.lenient().when(shopServiceImpl.isShopOwner(SHOP, owner)).thenReturn(true);
+    }
+
+    private Product row() {
+        Shop shop = new Shop();
+        shop.setId(SHOP);
+        Product product = new Product();
+        product.setId(PRODUCT);
+        product.setShop(shop);
+        product.setName("Green tea");
+        product.setDescription("Loose leaf");
+        product.setCategory("tea");
+        product.setPrice(1000);
+        product.setStock(rowStock);
+        product.setVersion(rowVersion);
+        return product;
+    }
+
+    private ResultActions read(String ifNoneMatch) throws Exception {
+        return mockMvc.perform(ifNoneMatch == null
+                ? get("/v1/products/get/{id}", PRODUCT)
+                : get("/v1/products/get/{id}", PRODUCT).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch));
+    }
+
+    private ResultActions update(String ifMatch, int stock) throws Exception {
+        String body = "{\"name\":\"Green tea\",\"description\":\"Loose leaf\",\"category\":\"tea\",\"stock\":"
+                + stock + ",\"price\":1200}";
+        var request = put("/v1/products/update/{id}", PRODUCT)
+                .principal(new UsernamePasswordAuthenticationToken(owner, null, List.of()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        return mockMvc.perform(ifMatch == null ? request : request.header(HttpHeaders.IF_MATCH, ifMatch));
+    }
+
+    private static String etag(ResultActions result) {
+        return result.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void tagChangesWhenTheProductIsEdited() throws Exception {
+        String etag = etag(read(null).andExpect(status().isOk()));
+        assertEquals("\"" + PRODUCT + ":0\"", etag);
+        read(etag).andExpect(status().isNotModified());
+
+        // Price only, so no If-Match is needed
+        update(null, rowStock).andExpect(status().isOk());
+
+        assertNotEquals(etag, etag(read(etag).andExpect(status().isOk())));
+    }
+
+    @Test
+    void tagChangesWhenStockIsReserved() throws Exception {
+        String etag = etag(read(null).andExpect(status().isOk()));
+        Mockito.when(productBulkRepository.reserveStock(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            rowStock -= 2;
+            rowVersion++;
+            return List.of();
+        });
+
+        productService.reserveStock(List.of(new OrderItem(new Order(), row(), 2)));
+
+        assertNotEquals(etag, etag(read(etag).andExpect(status().isOk())));
+    }
+
+    @Test
+    void stockChangeWithTheTagFromGetIsApplied() throws Exception {
+        String etag = etag(read(null));
+
+        String updated = etag(update(etag, 25).andExpect(status().isOk()));
+
+        assertEquals(25, rowStock);
+        assertEquals("\"" + PRODUCT + ":1\"", updated);
+        // The tag from the PUT response works for the next edit too
+        update(updated, 30).andExpect(status().isOk());
+        assertEquals(30, rowStock);
+    }
+
+    @Test
+    void weakTagIsAccepted() throws Exception {
+        update("W/" + etag(read(null)), 25).andExpect(status().isOk());
+    }
+
+    @Test
+    void tagReadBeforeACheckoutIsAConflict() throws Exception {
+        String etag = etag(read(null));
+        rowStock -= 2;
+        rowVersion++;
+
+        update(etag, 25).andExpect(status().isConflict());
+
+        assertEquals(8, rowStock);
+        Mockito.verify(productRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void stockChangeWithoutOrWithAForeignTagIsABadRequest() throws Exception {
+        update(null, 25).andExpect(status().isBadRequest());
+        update("\"" + UUID.randomUUID() + ":0\"", 25).andExpect(status().isBadRequest());
+        update("\"" + PRODUCT + ":null\"", 25).andExpect(status().isBadRequest());
+
+        Mockito.verify(productRepository, Mockito.never()).save(Mockito.any());
+    }
+}
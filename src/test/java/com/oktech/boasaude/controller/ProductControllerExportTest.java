@@ -0,0 +1,124 @@
+package com.oktech.boasaude.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.service.impl.ProductExportServiceImpl;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductControllerExportTest {
+
+    private static final long EXPORT_TIMEOUT_MS = 123_000;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ProductExportServiceImpl exportService = new ProductExportServiceImpl(productRepository, entityManager,
+                objectMapper);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ProductController(null, null, new CatalogHttpCaching(30, 60), exportService,
+                        EXPORT_TIMEOUT_MS))
+                .build();
+    }
+
+    private static Product product(String name, int price) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName(name);
+        product.setDescription("Loose leaf");
+        product.setCategory("tea");
+        product.setPrice(price);
+        product.setStock(3);
+        return product;
+    }
+
+    private String export(MvcResult started) throws Exception {
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writesOneProductPerLineWithTheFilters() throws Exception {
+        UUID shopId = UUID.randomUUID();
+        List<Product> products = List.of(product("Green tea", 1000), product("Chá, \"preto\"\nforte", 1500));
+        Mockito.when(productRepository.streamForExport(shopId, "tea")).thenReturn(products.stream());
+
+        MvcResult started = mockMvc.perform(get("/v1/products/export")
+                .param("shopId", shopId.toString())
+                .param("category", "tea"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = export(started);
+
+        // Every product ends with a newline, and a newline inside a value stays escaped
+        String[] lines = body.split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        for (int i = 0; i < products.size(); i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertEquals(products.get(i).getId().toString(), line.get("id").asText());
+            assertEquals(products.get(i).getName(), line.get("name").asText());
+        }
+        Mockito.verify(entityManager).detach(products.get(0));
+        Mockito.verify(entityManager).detach(products.get(1));
+    }
+
+    @Test
+    void blankCategoryIsNoFilter() throws Exception {
+        Mockito.when(productRepository.streamForExport(null, null)).thenReturn(Stream.empty());
+
+        MvcResult started = mockMvc.perform(get("/v1/products/export").param("category", " "))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals("", export(started));
+    }
+
+    @Test
+    void exportHasItsOwnTimeout() throws Exception {
+        Mockito.when(productRepository.streamForExport(null, null)).thenReturn(Stream.empty());
+
+        MvcResult started = mockMvc.perform(get("/v1/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(EXPORT_TIMEOUT_MS, started.getRequest().getAsyncContext().getTimeout());
+        export(started);
+    }
+}
@@ -0,0 +1,26 @@
+package com.oktech.boasaude.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class PageCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123456000), UUID.randomUUID(),
+                true);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void testInvalidTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.oktech.boasaude.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+public class SliceResponseTest {
+
+    @Test
+    public void testNextPageNumberWhenThereIsMore() {
+        SliceResponse<String> response = SliceResponse.of(new SliceImpl<>(List.of("a", "b"), PageRequest.of(2, 2), true),
+                null);
+
+        assertTrue(response.hasNext());
+        assertEquals(3, response.next());
+        assertNull(response.total());
+    }
+
+    @Test
+    public void testLastSliceHasNoNext() {
+        SliceResponse<String> response = SliceResponse.of(new SliceImpl<>(List.of("a"), PageRequest.of(0, 2), false),
+                42L);
+
+        assertFalse(response.hasNext());
+        assertNull(response.next());
+        assertEquals(42L, response.total());
+    }
+}
@@ -0,0 +1,138 @@
+package com.oktech.boasaude.repository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+
+/**
+ * Compares reading one page of products (us/op, and B/op with the GC
+ * profiler):
+ * <ul>
+ * <li>entity: managed Product entities mapped to ProductResponseDto, with the
+ * dirty-check on commit, as the services did before;</li>
+ * <li>projection: the constructor expression from
+ * {@link ProductRepository#SELECT_RESPONSE}.</li>
+ * </ul>
+ * Runs against an in-memory H2 database, so the numbers isolate the ORM cost
+ * rather than network or disk. Run with {@code mvn test-compile} and then the
+ * {@link #main(String[])} method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductProjectionBenchmark {
+
+    private static final int PRODUCTS = 5_000;
+
+    @Param({ "10", "100" })
+    private int pageSize;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Shop.class)
+                .addAnnotatedClass(Product.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            User owner = new User();
+            owner.setName("Benchmark");
+            owner.setEmail("benchmark@oktech.com");
+            session.persist(owner);
+
+            Shop shop = new Shop();
+            shop.setName("Loja");
+            shop.setCnpj("12345678000199");
+            shop.setOwner(owner);
+            session.persist(shop);
+
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = new Product();
+                product.setShop(shop);
+                product.setName("Produto " + i);
+                product.setDescription("Descrição do produto " + i);
+                product.setCategory("categoria-" + (i % 20));
+                product.setPrice(100 + i);
+                product.setStock(10);
+                session.persist(product);
+                if (i % 500 == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> entity() {
+        int offset = randomOffset();
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("FROM Product p ORDER BY p.id", Product.class)
+                .setFirstResult(offset)
+                .setMaxResults(pageSize)
+                .getResultList()
+                .stream()
+                .map(ProductResponseDto::new)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> projection() {
+        int offset = randomOffset();
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery(ProductRepository.SELECT_RESPONSE + " ORDER BY p.id", ProductResponseDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(pageSize)
+                .getResultList());
+    }
+
+    private int randomOffset() {
+        return ThreadLocalRandom.current().nextInt(PRODUCTS - pageSize);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductProjectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
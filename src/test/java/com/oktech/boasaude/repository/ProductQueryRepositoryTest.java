@@ -0,0 +1,55 @@
+package com.oktech.boasaude.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.oktech.boasaude.dto.ProductQueryDto;
+
+public class ProductQueryRepositoryTest {
+
+    private static final ProductQueryDto NO_FILTERS = new ProductQueryDto(null, null, null, null, null, null);
+
+    @Test
+    void defaultsToNewestFirst() {
+        assertEquals(Sort.by(Sort.Order.desc("createdAt")),
+                ProductQueryRepository.resolveSort(NO_FILTERS, Sort.unsorted()));
+    }
+
+    @Test
+    void acceptsRecencyWithoutFilters() {
+        assertEquals(Sort.by(Sort.Order.asc("createdAt")),
+                ProductQueryRepository.resolveSort(NO_FILTERS, Sort.by("createdAt")));
+    }
+
+    @Test
+    void acceptsPriceWithCategoryOrInStock() {
+        ProductQueryDto byCategory = new ProductQueryDto(null, "vitaminas", null, null, null, null);
+        ProductQueryDto inStock = new ProductQueryDto(null, null, null, null, null, true);
+
+        assertEquals(Sort.by(Sort.Order.desc("price")),
+                ProductQueryRepository.resolveSort(byCategory, Sort.by(Sort.Order.desc("price"))));
+        assertEquals(Sort.by(Sort.Order.asc("price")),
+                ProductQueryRepository.resolveSort(inStock, Sort.by("price")));
+    }
+
+    @Test
+    void rejectsPriceWithoutAnIndexedFilter() {
+        ProductQueryDto byShop = new ProductQueryDto(null, null, UUID.randomUUID(), 100, 500, false);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductQueryRepository.resolveSort(byShop, Sort.by("price")));
+    }
+
+    @Test
+    void rejectsUnindexedPropertiesAndCompoundSorts() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductQueryRepository.resolveSort(NO_FILTERS, Sort.by("name")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductQueryRepository.resolveSort(NO_FILTERS, Sort.by("createdAt", "price")));
+    }
+}
@@ -0,0 +1,182 @@
+package com.oktech.boasaude.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Many threads place orders over the same few products at once. Every order
+ * reserves its lines inside one transaction and rolls back if any line runs
+ * out, so the units sold must match exactly what left the stock, and no
+ * product may end below zero.
+ */
+public class StockReservationConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private static final int ORDERS_PER_THREAD = 50;
+
+    private static final int INITIAL_STOCK = 200;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ProductBulkRepository repository;
+
+    private List<UUID> products;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:stock-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new ProductBulkRepository(jdbcTemplate);
+
+        jdbcTemplate.execute("""
+                CREATE TABLE products (
+                    id UUID PRIMARY KEY,
+                    stock INT NOT NULL,
+                    version BIGINT NOT NULL DEFAULT 0,
+                    updated_at TIMESTAMP,
+                    flash_sale_owner VARCHAR(128)
+                )
+                """);
+        products = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO products (id, stock) VALUES (?, ?)", id, INITIAL_STOCK);
+            products.add(id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void neverOversellsUnderConcurrentOrders() throws Exception {
+        Map<UUID, LongAdder> sold = new ConcurrentHashMap<>();
+        products.forEach(id -> sold.put(id, new LongAdder()));
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int o = 0; o < ORDERS_PER_THREAD; o++) {
+                        Map<UUID, Integer> order = randomOrder();
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> {
+                                if (!repository.reserveStock(order, LocalDateTime.now()).isEmpty()) {
+                                    throw new IllegalArgumentException("Insufficient stock");
+                                }
+                            });
+                            order.forEach((id, quantity) -> sold.get(id).add(quantity));
+                            committed.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "orders did not finish");
+
+        assertTrue(failures.isEmpty(), () -> "unexpected failures (deadlock or lock timeout?): " + failures);
+        assertEquals(THREADS * ORDERS_PER_THREAD, committed.get() + rejected.get());
+        // Total demand exceeds the stock, so some orders must be turned down
+        assertTrue(rejected.get() > 0);
+
+        for (UUID id : products) {
+            int stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+            assertTrue(stock >= 0, "negative stock for " + id);
+            assertEquals(INITIAL_STOCK - stock, sold.get(id).sum(), "units sold differ from units reserved");
+        }
+    }
+
+    @Test
+    void reportsEveryProductWithoutStock() {
+        Map<UUID, Integer> order = new LinkedHashMap<>();
+        order.put(products.get(0), INITIAL_STOCK + 1);
+        order.put(products.get(1), 1);
+        order.put(products.get(2), INITIAL_STOCK + 1);
+
+        List<UUID> insufficient = transactionTemplate.execute(status -> {
+            List<UUID> result = repository.reserveStock(order, LocalDateTime.now());
+            status.setRollbackOnly();
+            return result;
+        });
+
+        assertEquals(2, insufficient.size());
+        assertTrue(insufficient.containsAll(List.of(products.get(0), products.get(2))));
+        // The rollback gives back the unit already taken from the second product
+        assertEquals(INITIAL_STOCK, jdbcTemplate.queryForObject(
+                "SELECT stock FROM products WHERE id = ?", Integer.class, products.get(1)));
+    }
+
+    @Test
+    void refusesProductsInAFlashSaleUntilItIsReleased() {
+        UUID product = products.get(0);
+        jdbcTemplate.update("UPDATE products SET flash_sale_owner = 'other-instance' WHERE id = ?", product);
+
+        assertEquals(List.of(product), repository.reserveStock(Map.of(product, 1), LocalDateTime.now()));
+        // Only the owning instance can release the row
+        repository.releaseFlashSale(product, "this-instance");
+        assertEquals(List.of(product), repository.reserveStock(Map.of(product, 1), LocalDateTime.now()));
+
+        repository.releaseFlashSale(product, "other-instance");
+        assertTrue(repository.reserveStock(Map.of(product, 1), LocalDateTime.now()).isEmpty());
+        assertEquals(INITIAL_STOCK - 1, jdbcTemplate.queryForObject(
+                "SELECT stock FROM products WHERE id = ?", Integer.class, product));
+    }
+
+    /**
+     * One to four products, in random insertion order, with one to five units
+     * each; the repository is the one that sorts the rows.
+     */
+    private Map<UUID, Integer> randomOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<UUID> shuffled = new ArrayList<>(products);
+        Collections.shuffle(shuffled, random);
+        Map<UUID, Integer> order = new LinkedHashMap<>();
+        for (UUID id : shuffled.subList(0, 1 + random.nextInt(shuffled.size()))) {
+            order.put(id, 1 + random.nextInt(5));
+        }
+        return order;
+    }
+}
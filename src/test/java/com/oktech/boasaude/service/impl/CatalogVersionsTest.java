@@ -0,0 +1,106 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.oktech.boasaude.repository.CatalogVersionRepository;
+
+public class CatalogVersionsTest {
+
+    /**
+     * In-memory stand-in for the catalog_versions table shared by the instances.
+     */
+    private static final class SharedTable extends CatalogVersionRepository {
+
+        private final Map<String, Long> versions = new HashMap<>();
+
+        SharedTable() {
+            super(null);
+        }
+
+        @Override
+        public synchronized Map<String, Long> bump(Collection<String> scopes) {
+            Map<String, Long> bumped = new HashMap<>();
+            scopes.forEach(scope -> bumped.put(scope, versions.merge(scope, 1L, Long::sum)));
+            return bumped;
+        }
+
+        @Override
+        public synchronized Changes findChangedSince(LocalDateTime since) {
+            return new Changes(new HashMap<>(versions), LocalDateTime.now());
+        }
+    }
+
+    @Test
+    public void testProductChangeOnlyAffectsItsShop() {
+        CatalogVersions versions = new CatalogVersions(new SharedTable());
+        UUID changed = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+
+        String products = versions.products();
+        String changedShop = versions.shopProducts(changed);
+        String untouchedShop = versions.shopProducts(untouched);
+        String shops = versions.shops();
+
+        versions.productChanged(changed);
+
+        assertNotEquals(products, versions.products());
+        assertNotEquals(changedShop, versions.shopProducts(changed));
+        assertEquals(untouchedShop, versions.shopProducts(untouched));
+        assertEquals(shops, versions.shops());
+    }
+
+    @Test
+    public void testShopDeletionChangesShopAndProductVersions() {
+        CatalogVersions versions = new CatalogVersions(new SharedTable());
+        UUID shopId = UUID.randomUUID();
+        String shops = versions.shops();
+        String shopProducts = versions.shopProducts(shopId);
+
+        versions.shopDeleted(shopId);
+
+        assertNotEquals(shops, versions.shops());
+        assertNotEquals(shopProducts, versions.shopProducts(shopId));
+    }
+
+    @Test
+    public void testInstancesAgreeAfterSync() {
+        SharedTable table = new SharedTable();
+        CatalogVersions first = new CatalogVersions(table);
+        CatalogVersions second = new CatalogVersions(table);
+        assertEquals(first.products(), second.products());
+        String before = first.products();
+
+        first.productChanged(UUID.randomUUID());
+        // The write is visible locally right away, before it is published
+        String local = first.products();
+        assertNotEquals(before, local);
+
+        first.sync();
+        second.sync();
+
+        assertEquals(first.products(), second.products());
+        assertNotEquals(before, first.products());
+        assertNotEquals(local, first.products());
+    }
+
+    @Test
+    public void testUnpublishedWritesOnTwoInstancesDoNotShareATag() {
+        SharedTable table = new SharedTable();
+        CatalogVersions first = new CatalogVersions(table);
+        CatalogVersions second = new CatalogVersions(table);
+
+        first.shopChanged();
+        second.shopChanged();
+
+        assertNotEquals(first.shops(), second.shops());
+    }
+}
@@ -0,0 +1,65 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class CategoryFacetsTest {
+
+    private final UUID shopA = UUID.randomUUID();
+    private final UUID shopB = UUID.randomUUID();
+
+    private final CategoryFacets facets = new CategoryFacets(null);
+
+    @Test
+    void countsGloballyAndPerShopOrderedByCount() {
+        facets.productAdded(shopA, "chás");
+        facets.productAdded(shopA, "vitaminas");
+        facets.productAdded(shopB, "vitaminas");
+
+        assertEquals(List.of("vitaminas", "chás"), List.copyOf(facets.counts(null).keySet()));
+        assertEquals(Map.of("vitaminas", 2L, "chás", 1L), facets.counts(null));
+        assertEquals(Map.of("vitaminas", 1L), facets.counts(shopB));
+        assertEquals(3, facets.count(null, null));
+        assertEquals(2, facets.count(null, "vitaminas"));
+    }
+
+    @Test
+    void movesProductsBetweenCategoriesAndDropsEmptyOnes() {
+        facets.productAdded(shopA, "chás");
+
+        facets.categoryChanged(shopA, "chás", "infusões");
+
+        assertEquals(Map.of("infusões", 1L), facets.counts(shopA));
+
+        facets.productRemoved(shopA, "infusões");
+
+        assertTrue(facets.counts(null).isEmpty());
+        assertTrue(facets.counts(shopA).isEmpty());
+    }
+
+    @Test
+    void ignoresRemovalsOfUnknownCategories() {
+        facets.productRemoved(shopA, "chás");
+
+        assertEquals(0, facets.count(shopA, "chás"));
+        assertTrue(facets.counts(null).isEmpty());
+    }
+
+    @Test
+    void deletingShopSubtractsItsProductsFromGlobalCounts() {
+        facets.productAdded(shopA, "vitaminas");
+        facets.productAdded(shopA, "vitaminas");
+        facets.productAdded(shopB, "vitaminas");
+
+        facets.shopDeleted(shopA);
+
+        assertEquals(Map.of("vitaminas", 1L), facets.counts(null));
+        assertTrue(facets.counts(shopA).isEmpty());
+    }
+}
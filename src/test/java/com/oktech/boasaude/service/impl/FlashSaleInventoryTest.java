@@ -0,0 +1,118 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.oktech.boasaude.repository.ProductBulkRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class FlashSaleInventoryTest {
+
+    private static final UUID PRODUCT = UUID.randomUUID();
+
+    @Mock
+    private ProductBulkRepository productBulkRepository;
+
+    @Mock
+    private ProductSnapshotCache productCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FlashSaleInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new FlashSaleInventory(productBulkRepository, productCache, meterRegistry, 4,
+                "test-instance");
+        inventory.start(PRODUCT, 100);
+    }
+
+    @Test
+    void retriesTheFinalFlushOfAnEndedSale() {
+        inventory.reserve(Map.of(PRODUCT, 3)).confirm();
+        Mockito.doThrow(new DataAccessResourceFailureException("database down"))
+                .doReturn(Map.of())
+                .when(productBulkRepository).applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 3)), Mockito.any());
+
+        inventory.end(PRODUCT);
+        inventory.flush();
+        // Nothing is left to write, so later runs do not touch the database
+        inventory.flush();
+
+        Mockito.verify(productBulkRepository, Mockito.times(2))
+                .applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 3)), Mockito.any());
+        // The row is unmarked only once its units are written
+        Mockito.verify(productBulkRepository).releaseFlashSale(PRODUCT, "test-instance");
+    }
+
+    @Test
+    void endedSaleUnmarksTheRow() {
+        inventory.reserve(Map.of(PRODUCT, 3)).confirm();
+
+        inventory.end(PRODUCT);
+
+        Mockito.verify(productBulkRepository).applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 3)), Mockito.any());
+        Mockito.verify(productBulkRepository).releaseFlashSale(PRODUCT, "test-instance");
+    }
+
+    @Test
+    void unitsBeyondTheRowStockAreCounted() {
+        // The stock was lowered outside the sale, so the row only had 1 of the 3 units
+        inventory.reserve(Map.of(PRODUCT, 3)).confirm();
+        Mockito.when(productBulkRepository.applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 3)), Mockito.any()))
+                .thenReturn(Map.of(PRODUCT, 2));
+
+        inventory.flush();
+
+        Assertions.assertEquals(2, meterRegistry.counter("flash.sale.oversold.units").count());
+    }
+
+    @Test
+    void confirmationAfterTheSaleEndedIsRetriedToo() {
+        FlashSaleInventory.Reservation inFlight = inventory.reserve(Map.of(PRODUCT, 2));
+        inventory.end(PRODUCT);
+        Mockito.doThrow(new DataAccessResourceFailureException("database down"))
+                .doReturn(Map.of())
+                .when(productBulkRepository).applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 2)), Mockito.any());
+
+        inFlight.confirm();
+        inventory.flush();
+
+        Mockito.verify(productBulkRepository, Mockito.times(2))
+                .applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 2)), Mockito.any());
+    }
+
+    @Test
+    void cancelledUnitsReturnToTheSaleAndTheRow() {
+        inventory.reserve(Map.of(PRODUCT, 5)).confirm();
+        inventory.flush();
+
+        inventory.release(Map.of(PRODUCT, 5)).confirm();
+        inventory.flush();
+
+        Mockito.verify(productBulkRepository).applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 5)), Mockito.any());
+        // The return goes through the same batch as a negative decrement
+        Mockito.verify(productBulkRepository).applyStockDecrements(Mockito.eq(Map.of(PRODUCT, -5)), Mockito.any());
+        Assertions.assertEquals(100, inventory.start(PRODUCT, 0));
+    }
+
+    @Test
+    void shutdownWritesPendingDecrements() {
+        inventory.reserve(Map.of(PRODUCT, 5)).confirm();
+
+        inventory.flushOnShutdown();
+
+        Mockito.verify(productBulkRepository).applyStockDecrements(Mockito.eq(Map.of(PRODUCT, 5)), Mockito.any());
+    }
+}
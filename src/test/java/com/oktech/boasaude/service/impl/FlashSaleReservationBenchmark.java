@@ -0,0 +1,143 @@
+package com.oktech.boasaude.service.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of many buyers reserving one unit of the same product (ops/ms):
+ * <ul>
+ * <li>rowLock: the conditional UPDATE used by checkout, one transaction per
+ * reservation, all serialized on the product row;</li>
+ * <li>striped: the flash-sale {@link StripedStock}, with one stripe (a single
+ * CAS counter) and with 16.</li>
+ * </ul>
+ * The row-lock side runs on an in-memory H2 database, so against Postgres the
+ * gap is wider: each reservation there also pays a network round trip while
+ * holding the lock. Run with {@code mvn test-compile} and then the
+ * {@link #main(String[])} method on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class FlashSaleReservationBenchmark {
+
+    /**
+     * Enough stock that no reservation fails during a run.
+     */
+    private static final int STOCK = Integer.MAX_VALUE;
+
+    private static final String RESERVE_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private final JdbcDataSource dataSource = new JdbcDataSource();
+
+        private final UUID productId = UUID.randomUUID();
+
+        private Connection keepAlive;
+
+        @Setup
+        public void setUp() throws SQLException {
+            dataSource.setURL("jdbc:h2:mem:flash-sale;LOCK_TIMEOUT=60000");
+            keepAlive = dataSource.getConnection();
+            try (Statement statement = keepAlive.createStatement()) {
+                statement.execute("CREATE TABLE products (id UUID PRIMARY KEY, stock INT NOT NULL, "
+                        + "version BIGINT NOT NULL DEFAULT 0)");
+            }
+            try (PreparedStatement insert = keepAlive.prepareStatement(
+                    "INSERT INTO products (id, stock) VALUES (?, ?)")) {
+                insert.setObject(1, productId);
+                insert.setInt(2, STOCK);
+                insert.executeUpdate();
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            keepAlive.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private Connection connection;
+
+        private PreparedStatement reserve;
+
+        @Setup(Level.Trial)
+        public void setUp(Database database) throws SQLException {
+            connection = database.dataSource.getConnection();
+            connection.setAutoCommit(false);
+            reserve = connection.prepareStatement(RESERVE_SQL);
+            reserve.setInt(1, 1);
+            reserve.setObject(2, database.productId);
+            reserve.setInt(3, 1);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Stripes {
+
+        @Param({ "1", "16" })
+        private int stripes;
+
+        private StripedStock stock;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            stock = new StripedStock(STOCK, stripes);
+        }
+    }
+
+    @Benchmark
+    public int rowLock(Session session) throws SQLException {
+        int updated = session.reserve.executeUpdate();
+        session.connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public boolean striped(Stripes stripes) {
+        return stripes.stock.tryReserve(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FlashSaleReservationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
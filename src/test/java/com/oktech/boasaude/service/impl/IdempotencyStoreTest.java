@@ -0,0 +1,163 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.dto.IdempotentResponse;
+import com.oktech.boasaude.repository.IdempotencyKeyRepository;
+import com.oktech.boasaude.repository.IdempotencyKeyRepository.StoredKey;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    record Response(String id) {
+    }
+
+    private static final UUID USER = UUID.randomUUID();
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(transactionManager.getTransaction(Mockito.any()))
+                .thenReturn(new SimpleTransactionStatus());
+        store = new IdempotencyStore(repository, new TransactionTemplate(transactionManager), new ObjectMapper(),
+                24, 1000, 2000, 60000);
+    }
+
+    @Test
+    void retryReturnsTheStoredResponseWithoutRunningAgain() {
+        Mockito.when(repository.claim(Mockito.eq(USER), Mockito.eq("k1"), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotentResponse<Response> first = store.execute(USER, "k1", List.of("a"), Response.class,
+                () -> new Response("order-" + runs.incrementAndGet()));
+        IdempotentResponse<Response> retry = store.execute(USER, "k1", List.of("a"), Response.class,
+                () -> new Response("order-" + runs.incrementAndGet()));
+
+        assertEquals(1, runs.get());
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.body(), retry.body());
+        Mockito.verify(repository).complete(Mockito.eq(USER), Mockito.eq("k1"), Mockito.contains("order-1"));
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheInFlightRequest() throws Exception {
+        Mockito.when(repository.claim(Mockito.eq(USER), Mockito.eq("k2"), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenReturn(true);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<IdempotentResponse<Response>> original = CompletableFuture.supplyAsync(
+                () -> store.execute(USER, "k2", List.of("a"), Response.class, () -> {
+                    runs.incrementAndGet();
+                    running.countDown();
+                    await(release);
+                    return new Response("order-1");
+                }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<IdempotentResponse<Response>> duplicate = CompletableFuture.supplyAsync(
+                () -> store.execute(USER, "k2", List.of("a"), Response.class, () -> {
+                    runs.incrementAndGet();
+                    return new Response("order-2");
+                }));
+        release.countDown();
+
+        assertEquals("order-1", original.get(5, TimeUnit.SECONDS).body().id());
+        assertEquals("order-1", duplicate.get(5, TimeUnit.SECONDS).body().id());
+        assertEquals(1, runs.get());
+        Mockito.verify(repository, Mockito.times(1)).claim(Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void replaysAResponseStoredByAnotherInstance() {
+        Mockito.when(repository.claim(Mockito.eq(USER), Mockito.eq("k3"), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenReturn(false);
+        IdempotentResponse<Response> first = storeWithStoredResponse("k3", List.of("a"));
+
+        assertTrue(first.replayed());
+        assertEquals("order-9", first.body().id());
+    }
+
+    @Test
+    void rejectsTheSameKeyWithAnotherRequest() {
+        Mockito.when(repository.claim(Mockito.eq(USER), Mockito.eq("k4"), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenReturn(true);
+        store.execute(USER, "k4", List.of("a"), Response.class, () -> new Response("order-1"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute(USER, "k4", List.of("b"), Response.class, () -> new Response("order-2")));
+    }
+
+    @Test
+    void releasesTheKeyWhenTheOperationFails() {
+        Mockito.when(repository.claim(Mockito.eq(USER), Mockito.eq("k5"), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute(USER, "k5", List.of("a"), Response.class,
+                () -> {
+                    throw new IllegalArgumentException("Insufficient stock");
+                }));
+        Mockito.verify(repository).release(USER, "k5");
+
+        // A new attempt runs the operation again
+        IdempotentResponse<Response> retry = store.execute(USER, "k5", List.of("a"), Response.class,
+                () -> new Response("order-1"));
+        assertFalse(retry.replayed());
+    }
+
+    private IdempotentResponse<Response> storeWithStoredResponse(String key, Object request) {
+        // Learn the stored hash by running the same request under another key
+        Mockito.when(repository.claim(Mockito.eq(USER), Mockito.eq("probe"), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenReturn(true);
+        store.execute(USER, "probe", request, Response.class, () -> new Response("order-9"));
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(repository).claim(Mockito.eq(USER), Mockito.eq("probe"), hash.capture(), Mockito.any(),
+                Mockito.any());
+
+        Mockito.when(repository.find(USER, key))
+                .thenReturn(Optional.of(new StoredKey(hash.getValue(), "{\"id\":\"order-9\"}")));
+        return store.execute(USER, key, request, Response.class, () -> new Response("unexpected"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.repository.OrderItemRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderItemServiceImplTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ProductServiceImpl productServiceImpl;
+
+    @InjectMocks
+    private OrderItemServiceImpl orderItemService;
+
+    private static Product product(UUID id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(1000);
+        return product;
+    }
+
+    @Test
+    void mergesRepeatedLinesAndLoadsProductsOnce() {
+        UUID tea = UUID.randomUUID();
+        UUID vitamin = UUID.randomUUID();
+        Mockito.when(productServiceImpl.getProductsByIds(Set.of(tea, vitamin)))
+                .thenReturn(List.of(product(vitamin), product(tea)));
+        Order order = new Order();
+
+        List<OrderItem> items = orderItemService.addOrderItems(order, List.of(
+                new CreateOrderItemDto(2, tea),
+                new CreateOrderItemDto(1, vitamin),
+                new CreateOrderItemDto(3, tea)));
+
+        assertEquals(2, items.size());
+        assertEquals(tea, items.get(0).getProduct().getId());
+        assertEquals(5, items.get(0).getQuantity());
+        assertEquals(1, items.get(1).getQuantity());
+        assertSame(order, items.get(0).getOrder());
+        assertEquals(items, order.getItems());
+        assertEquals(6_000L, order.getTotalAmount());
+        assertEquals(6, order.getItemCount());
+        Mockito.verify(productServiceImpl, Mockito.times(1)).getProductsByIds(Mockito.any());
+        Mockito.verify(productServiceImpl).reserveStock(items);
+        Mockito.verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    void leavesOrderEmptyWhenStockIsInsufficient() {
+        UUID tea = UUID.randomUUID();
+        Mockito.when(productServiceImpl.getProductsByIds(Set.of(tea)))
+                .thenReturn(List.of(product(tea)));
+        Mockito.doThrow(new IllegalArgumentException("Insufficient stock"))
+                .when(productServiceImpl).reserveStock(Mockito.anyList());
+        Order order = new Order();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderItemService.addOrderItems(order, List.of(new CreateOrderItemDto(1, tea))));
+        assertTrue(order.getItems().isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownProducts() {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        Mockito.when(productServiceImpl.getProductsByIds(Set.of(known, unknown)))
+                .thenReturn(List.of(product(known)));
+
+        assertThrows(IllegalArgumentException.class, () -> orderItemService.addOrderItems(new Order(), List.of(
+                new CreateOrderItemDto(1, known),
+                new CreateOrderItemDto(1, unknown))));
+    }
+
+    @Test
+    void rejectsInvalidLinesBeforeLoadingProducts() {
+        assertThrows(IllegalArgumentException.class, () -> orderItemService.addOrderItems(new Order(),
+                List.of(new CreateOrderItemDto(0, UUID.randomUUID()))));
+        assertThrows(IllegalArgumentException.class, () -> orderItemService.addOrderItems(new Order(), List.of()));
+
+        Mockito.verifyNoInteractions(productServiceImpl);
+    }
+}
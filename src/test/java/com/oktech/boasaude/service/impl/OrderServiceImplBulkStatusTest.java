@@ -0,0 +1,202 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+
+import com.oktech.boasaude.dto.BulkOrderStatusUpdateDto;
+import com.oktech.boasaude.dto.OrderEventDto;
+import com.oktech.boasaude.dto.OrderStatusUpdateResultDto;
+import com.oktech.boasaude.dto.OrderStatusUpdateResultDto.Outcome;
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.OrderBulkRepository;
+import com.oktech.boasaude.repository.OrderBulkRepository.TransitionedOrder;
+import com.oktech.boasaude.repository.OrderRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceImplBulkStatusTest {
+
+    private static final UUID SHOP = UUID.randomUUID();
+
+    @Mock
+    private OrderBulkRepository orderBulkRepository;
+
+    @Mock
+    private ShopServiceImpl shopServiceImpl;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductServiceImpl productServiceImpl;
+
+    private final User seller = new User();
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        seller.setId(UUID.randomUUID());
+        orderService = new OrderServiceImpl(orderRepository, null, null, null, outboxPublisher, orderBulkRepository,
+                shopServiceImpl, productServiceImpl);
+    }
+
+    @Test
+    void reportsAnOutcomeForEveryOrderInRequestOrder() {
+        UUID pending = UUID.randomUUID();
+        UUID raced = UUID.randomUUID();
+        UUID completed = UUID.randomUUID();
+        UUID otherShop = UUID.randomUUID();
+        Mockito.when(shopServiceImpl.isShopOwner(SHOP, seller)).thenReturn(true);
+        Mockito.when(orderBulkRepository.findStatusesForShop(Mockito.eq(SHOP), Mockito.any())).thenReturn(Map.of(
+                pending, OrderStatus.PENDING,
+                raced, OrderStatus.PENDING,
+                completed, OrderStatus.COMPLETED));
+        // The raced order was cancelled by its buyer after the read, so the UPDATE skips it
+        Mockito.when(orderBulkRepository.transition(Mockito.any(), Mockito.eq(OrderStatus.PENDING),
+                Mockito.eq(OrderStatus.COMPLETED), Mockito.any()))
+                .thenReturn(List.of(new TransitionedOrder(pending, UUID.randomUUID(), 500, 2)));
+
+        List<OrderStatusUpdateResultDto> results = orderService.updateShopOrdersStatus(SHOP,
+                new BulkOrderStatusUpdateDto(List.of(pending, raced, completed, otherShop, pending), "completed"),
+                seller);
+
+        assertEquals(List.of(
+                new OrderStatusUpdateResultDto(pending, Outcome.UPDATED, OrderStatus.COMPLETED),
+                new OrderStatusUpdateResultDto(raced, Outcome.CONFLICT, null),
+                new OrderStatusUpdateResultDto(completed, Outcome.INVALID_TRANSITION, OrderStatus.COMPLETED),
+                new OrderStatusUpdateResultDto(otherShop, Outcome.NOT_FOUND, null)), results);
+        // One UPDATE for the only source state that may become COMPLETED
+        Mockito.verify(orderBulkRepository).transition(
+                Mockito.argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(pending, raced))),
+                Mockito.eq(OrderStatus.PENDING), Mockito.eq(OrderStatus.COMPLETED), Mockito.any());
+        Mockito.verify(outboxPublisher).publishAll(Mockito.eq(OrderEventDto.AGGREGATE_TYPE),
+                Mockito.eq(OrderEventDto.STATUS_CHANGED),
+                Mockito.argThat(events -> events.size() == 1 && events.containsKey(pending)));
+        // Completed orders keep their stock
+        Mockito.verifyNoInteractions(productServiceImpl);
+    }
+
+    @Test
+    void cancelledOrdersGiveTheirStockBack() {
+        UUID pending = UUID.randomUUID();
+        UUID raced = UUID.randomUUID();
+        Mockito.when(shopServiceImpl.isShopOwner(SHOP, seller)).thenReturn(true);
+        Mockito.when(orderBulkRepository.findStatusesForShop(Mockito.eq(SHOP), Mockito.any())).thenReturn(Map.of(
+                pending, OrderStatus.PENDING,
+                raced, OrderStatus.PENDING));
+        Mockito.when(orderBulkRepository.transition(Mockito.any(), Mockito.eq(OrderStatus.PENDING),
+                Mockito.eq(OrderStatus.CANCELLED), Mockito.any()))
+                .thenReturn(List.of(new TransitionedOrder(pending, UUID.randomUUID(), 500, 2)));
+
+        orderService.updateShopOrdersStatus(SHOP,
+                new BulkOrderStatusUpdateDto(List.of(pending, raced), "CANCELLED"), seller);
+
+        // Only the order this request actually cancelled
+        Mockito.verify(productServiceImpl).releaseStock(Mockito.argThat(ids -> ids.equals(Set.of(pending))));
+    }
+
+    @Test
+    void buyerCancellationGivesTheStockBackOnce() {
+        Order order = buyersOrder();
+        Mockito.when(orderBulkRepository.transition(Mockito.eq(List.of(order.getId())), Mockito.eq(OrderStatus.PENDING),
+                Mockito.eq(OrderStatus.CANCELLED), Mockito.any()))
+                .thenReturn(List.of(new TransitionedOrder(order.getId(), seller.getId(), 0, 0)))
+                .thenReturn(List.of());
+
+        assertEquals(OrderStatus.CANCELLED,
+                orderService.updateOrderStatus(order.getId(), "cancelled", seller).getStatus());
+        // A second request that read PENDING before the first committed loses the conditional UPDATE
+        order.updateStatus(OrderStatus.PENDING);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> orderService.updateOrderStatus(order.getId(), "cancelled", seller));
+
+        Mockito.verify(productServiceImpl).releaseStock(List.of(order.getId()));
+    }
+
+    @Test
+    void buyersCannotCompleteOrders() {
+        Order order = buyersOrder();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.updateOrderStatus(order.getId(), "COMPLETED", seller));
+        Mockito.verifyNoInteractions(orderBulkRepository, productServiceImpl);
+    }
+
+    private Order buyersOrder() {
+        Order order = new Order(seller);
+        order.setId(UUID.randomUUID());
+        Mockito.when(orderRepository.findWithItemsById(order.getId())).thenReturn(Optional.of(order));
+        return order;
+    }
+
+    @Test
+    void multiShopOrdersAreCompletedByAnAdmin() {
+        // Items from SHOP and from another shop
+        UUID mixed = UUID.randomUUID();
+        Mockito.when(shopServiceImpl.isShopOwner(SHOP, seller)).thenReturn(true);
+        Mockito.when(orderBulkRepository.findStatusesForShop(Mockito.eq(SHOP), Mockito.any())).thenReturn(Map.of());
+
+        assertEquals(List.of(new OrderStatusUpdateResultDto(mixed, Outcome.NOT_FOUND, null)),
+                orderService.updateShopOrdersStatus(SHOP, new BulkOrderStatusUpdateDto(List.of(mixed), "COMPLETED"),
+                        seller));
+
+        User admin = new User();
+        admin.setRole(UserRole.ADMIN);
+        Mockito.when(orderBulkRepository.findStatuses(Mockito.any())).thenReturn(Map.of(mixed, OrderStatus.PENDING));
+        Mockito.when(orderBulkRepository.transition(Mockito.any(), Mockito.eq(OrderStatus.PENDING),
+                Mockito.eq(OrderStatus.COMPLETED), Mockito.any()))
+                .thenReturn(List.of(new TransitionedOrder(mixed, UUID.randomUUID(), 900, 3)));
+
+        assertEquals(List.of(new OrderStatusUpdateResultDto(mixed, Outcome.UPDATED, OrderStatus.COMPLETED)),
+                orderService.updateShopOrdersStatus(SHOP, new BulkOrderStatusUpdateDto(List.of(mixed), "COMPLETED"),
+                        admin));
+        Mockito.verify(shopServiceImpl, Mockito.never()).isShopOwner(SHOP, admin);
+    }
+
+    @Test
+    void rejectsSellersOfOtherShops() {
+        Mockito.when(shopServiceImpl.isShopOwner(SHOP, seller)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> orderService.updateShopOrdersStatus(SHOP,
+                new BulkOrderStatusUpdateDto(List.of(UUID.randomUUID()), "CANCELLED"), seller));
+        Mockito.verifyNoInteractions(orderBulkRepository);
+    }
+
+    @Test
+    void rejectsUnknownStatus() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.updateShopOrdersStatus(SHOP,
+                new BulkOrderStatusUpdateDto(List.of(UUID.randomUUID()), "SHIPPED"), seller));
+    }
+
+    @Test
+    void onlyPendingOrdersMayChange() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.COMPLETED));
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.CANCELLED));
+        assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.PENDING));
+        assertFalse(OrderStatus.COMPLETED.canTransitionTo(OrderStatus.CANCELLED));
+        assertFalse(OrderStatus.CANCELLED.canTransitionTo(OrderStatus.PENDING));
+    }
+}
@@ -0,0 +1,183 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import com.oktech.boasaude.dto.CursorPage;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.OrderRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Counts the SQL statements behind each order listing, including the mapping
+ * to OrderResponseDto, with one EntityManager open for the whole test, as
+ * open-session-in-view does. Any lazy load of items or products while
+ * mapping would show up as extra statements.
+ */
+public class OrderServiceImplQueryCountTest {
+
+    private static final int ORDERS = 12;
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    private static SessionFactory sessionFactory;
+
+    private static User buyer;
+
+    private EntityManager entityManager;
+
+    private OrderServiceImpl orderService;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    static void createOrders() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Shop.class)
+                .addAnnotatedClass(Product.class)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:order-reads;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            User owner = new User();
+            owner.setName("Loja");
+            owner.setEmail("loja@oktech.com");
+            session.persist(owner);
+
+            buyer = new User();
+            buyer.setName("Comprador");
+            buyer.setEmail("comprador@oktech.com");
+            session.persist(buyer);
+
+            Shop shop = new Shop();
+            shop.setName("Loja");
+            shop.setCnpj("12345678000199");
+            shop.setOwner(owner);
+            session.persist(shop);
+
+            Product[] products = new Product[5];
+            for (int i = 0; i < products.length; i++) {
+                products[i] = new Product();
+                products[i].setShop(shop);
+                products[i].setName("Produto " + i);
+                products[i].setDescription("Descrição " + i);
+                products[i].setCategory("categoria");
+                products[i].setPrice(100 + i);
+                products[i].setStock(100);
+                session.persist(products[i]);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (int o = 0; o < ORDERS; o++) {
+                Order order = new Order(buyer);
+                order.setCreatedAt(now.minusMinutes(o));
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    order.addItem(new OrderItem(order, products[(o + i) % products.length], 1 + i));
+                }
+                session.persist(order);
+            }
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManager = sessionFactory.createEntityManager();
+        OrderRepository orderRepository = new JpaRepositoryFactory(entityManager).getRepository(OrderRepository.class);
+        orderService = new OrderServiceImpl(orderRepository, null, null, null, null, null, null, null);
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+    }
+
+    @Test
+    void pageOfOrdersTakesThreeStatements() {
+        Page<OrderResponseDto> page = orderService
+                .getOrdersByUserId(PageRequest.of(0, 10, Sort.by(Sort.Order.desc("createdAt"))), buyer)
+                .map(OrderResponseDto::new);
+
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(ORDERS, page.getTotalElements());
+        assertItemsMapped(page.getContent());
+        // Page of IDs, count and one fetch join
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pageKeepsTheRequestedOrder() {
+        List<Order> orders = orderService
+                .getOrdersByUserId(PageRequest.of(0, 10, Sort.by(Sort.Order.desc("createdAt"))), buyer)
+                .getContent();
+
+        for (int i = 1; i < orders.size(); i++) {
+            assertTrue(orders.get(i - 1).getCreatedAt().isAfter(orders.get(i).getCreatedAt()));
+        }
+    }
+
+    @Test
+    void sliceOfOrdersTakesTwoStatements() {
+        Slice<OrderResponseDto> slice = orderService
+                .getOrdersSliceByUserId(PageRequest.of(1, 5, Sort.by(Sort.Order.desc("createdAt"))), buyer)
+                .map(OrderResponseDto::new);
+
+        assertEquals(5, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        assertItemsMapped(slice.getContent());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorPageTakesTwoStatements() {
+        CursorPage<OrderResponseDto> page = orderService.getOrdersByUserIdAndCursor(null, 10, buyer)
+                .map(OrderResponseDto::new);
+
+        assertEquals(10, page.items().size());
+        assertItemsMapped(page.items());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private static void assertItemsMapped(List<OrderResponseDto> orders) {
+        for (OrderResponseDto order : orders) {
+            assertEquals(ITEMS_PER_ORDER, order.items().size());
+            order.items().forEach(item -> assertTrue(item.productName().startsWith("Produto ")));
+        }
+    }
+}
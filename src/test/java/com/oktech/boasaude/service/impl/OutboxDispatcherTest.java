@@ -0,0 +1,126 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oktech.boasaude.repository.OutboxRepository;
+import com.oktech.boasaude.repository.OutboxRepository.OutboxEvent;
+import com.oktech.boasaude.service.OutboxEventHandler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxDispatcherTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private OutboxRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<OutboxEvent> handled = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(transactionManager.getTransaction(Mockito.any()))
+                .thenReturn(Mockito.mock(TransactionStatus.class));
+        OutboxEventHandler handler = new OutboxEventHandler() {
+            @Override
+            public boolean supports(String eventType) {
+                return eventType.startsWith("order.");
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                if (event.payload().contains("fail")) {
+                    throw new IllegalStateException("downstream unavailable");
+                }
+                handled.add(event);
+            }
+        };
+        dispatcher = new OutboxDispatcher(repository, List.of(handler), new TransactionTemplate(transactionManager),
+                meterRegistry, BATCH_SIZE, 5, MAX_ATTEMPTS);
+    }
+
+    @Test
+    void drainsFullBatchesAndDeletesEachBatchAtOnce() {
+        Mockito.when(repository.lockPending(Mockito.any(), Mockito.eq(BATCH_SIZE)))
+                .thenReturn(List.of(event(1, "{}", 0), event(2, "{}", 0)))
+                .thenReturn(List.of(event(3, "{}", 0)));
+
+        dispatcher.dispatch();
+
+        assertEquals(3, handled.size());
+        Mockito.verify(repository).deleteAll(List.of(1L, 2L));
+        Mockito.verify(repository).deleteAll(List.of(3L));
+        // A short batch means the outbox is empty, so the run stops there
+        Mockito.verify(repository, Mockito.times(2)).lockPending(Mockito.any(), Mockito.anyInt());
+        assertEquals(3, meterRegistry.counter("outbox.events", "result", "delivered").count());
+        assertEquals(3, meterRegistry.timer("outbox.events.lag").count());
+    }
+
+    @Test
+    void failedEventIsRetriedLaterWhileTheRestOfTheBatchIsDeleted() {
+        Mockito.when(repository.lockPending(Mockito.any(), Mockito.eq(BATCH_SIZE)))
+                .thenReturn(List.of(event(1, "{\"fail\":true}", 0), event(2, "{}", 0)))
+                .thenReturn(List.of());
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        Mockito.verify(repository).deleteAll(List.of(2L));
+        Mockito.verify(repository).retryLater(Mockito.eq(1L), Mockito.eq(1),
+                Mockito.argThat(next -> !next.isBefore(before.plusSeconds(2))),
+                Mockito.eq("downstream unavailable"));
+        assertEquals(1, meterRegistry.counter("outbox.events", "result", "retried").count());
+    }
+
+    @Test
+    void parksTheEventAfterTheLastAttempt() {
+        Mockito.when(repository.lockPending(Mockito.any(), Mockito.eq(BATCH_SIZE)))
+                .thenReturn(List.of(event(7, "{\"fail\":true}", MAX_ATTEMPTS - 1)));
+
+        dispatcher.dispatch();
+
+        Mockito.verify(repository).park(7L, MAX_ATTEMPTS, "downstream unavailable");
+        Mockito.verify(repository, Mockito.never()).retryLater(Mockito.anyLong(), Mockito.anyInt(), Mockito.any(),
+                Mockito.any());
+        assertEquals(1, meterRegistry.counter("outbox.events", "result", "parked").count());
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertEquals(Duration.ofSeconds(2), OutboxDispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(16), OutboxDispatcher.backoff(4));
+        assertTrue(OutboxDispatcher.backoff(40).getSeconds() <= 300);
+    }
+
+    private static OutboxEvent event(long id, String payload, int attempts) {
+        return new OutboxEvent(id, "Order", UUID.randomUUID(), "order.created", payload,
+                LocalDateTime.now().minusSeconds(1), attempts);
+    }
+}
@@ -0,0 +1,118 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.service.ProductImportService.Format;
+
+public class ProductImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProductImportReader reader(String content, Format format) {
+        return new ProductImportReader(new StringReader(content), format, objectMapper);
+    }
+
+    @Test
+    void readsCsvColumnsByHeaderName() throws IOException {
+        ProductImportReader reader = reader(
+                "price,stock,name,category,description\r\n"
+                        + "1990,10,\"Whey, baunilha\",suplementos,\"Pote de 900g \"\"premium\"\"\"\r\n",
+                Format.CSV);
+
+        ProductImportReader.Row row = reader.next();
+
+        assertEquals(2, row.line());
+        assertNull(row.error());
+        assertEquals("Whey, baunilha", row.product().name());
+        assertEquals("Pote de 900g \"premium\"", row.product().description());
+        assertEquals(1990, row.product().price());
+        assertEquals(10, row.product().stock());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void reportsInvalidCsvRowsAndKeepsReading() throws IOException {
+        ProductImportReader reader = reader(
+                "name,description,category,stock,price\n"
+                        + "Chá,Camomila,bebidas,dez,500\n"
+                        + "\n"
+                        + "Chá,\"Camomila,bebidas,10,500\n"
+                        + "Chá,Camomila,bebidas,,500\n",
+                Format.CSV);
+
+        ProductImportReader.Row invalidNumber = reader.next();
+        ProductImportReader.Row unterminated = reader.next();
+        ProductImportReader.Row missingStock = reader.next();
+
+        assertEquals(2, invalidNumber.line());
+        assertNotNull(invalidNumber.error());
+        assertEquals(4, unterminated.line());
+        assertNotNull(unterminated.error());
+        assertEquals(5, missingStock.line());
+        assertNull(missingStock.error());
+        assertNull(missingStock.product().stock());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsCsvWithoutRequiredColumns() {
+        ProductImportReader reader = reader("name,price\nChá,500\n", Format.CSV);
+
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    @Test
+    void readsNdjsonLines() throws IOException {
+        ProductImportReader reader = reader(
+                "{\"name\":\"Chá\",\"description\":\"Camomila\",\"category\":\"bebidas\",\"stock\":3,\"price\":500}\n"
+                        + "{\"name\":\n",
+                Format.NDJSON);
+
+        ProductImportReader.Row valid = reader.next();
+        ProductImportReader.Row broken = reader.next();
+
+        assertEquals("Chá", valid.product().name());
+        assertEquals(2, broken.line());
+        assertNotNull(broken.error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void reportsNullNdjsonLinesAsRowErrors() throws IOException {
+        ProductImportReader reader = reader(
+                "null\n"
+                        + "{\"name\":\"Chá\",\"description\":\"Camomila\",\"category\":\"bebidas\",\"stock\":3,\"price\":500}\n",
+                Format.NDJSON);
+
+        ProductImportReader.Row nullLine = reader.next();
+
+        assertEquals(1, nullLine.line());
+        assertNull(nullLine.product());
+        assertNotNull(nullLine.error());
+        assertEquals("Chá", reader.next().product().name());
+    }
+
+    @Test
+    void rejectsLinesAboveTheLimit() throws IOException {
+        String longLine = "x".repeat(ProductImportReader.MAX_LINE_LENGTH + 1);
+        ProductImportReader reader = reader(longLine + "\n{\"name\":\"Chá\"}", Format.NDJSON);
+
+        assertNotNull(reader.next().error());
+        assertEquals("Chá", reader.next().product().name());
+    }
+
+    @Test
+    void splitsQuotedFields() {
+        assertEquals(List.of("a", "b,c", "", "d\"e"), ProductImportReader.splitCsv("a,\"b,c\",,\"d\"\"e\""));
+    }
+}
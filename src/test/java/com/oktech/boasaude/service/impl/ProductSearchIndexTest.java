@@ -0,0 +1,66 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductSearchIndexTest {
+
+    private final UUID vitamin = UUID.randomUUID();
+    private final UUID protein = UUID.randomUUID();
+    private final UUID tea = UUID.randomUUID();
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex();
+        index.put(vitamin, "Vitamina C", "Suplementos", "Comprimidos efervescentes de vitamina C");
+        index.put(protein, "Proteína Vegana", "Suplementos", "Proteína de ervilha com vitaminas");
+        index.put(tea, "Chá de Camomila", "Bebidas", "Chá calmante");
+    }
+
+    @Test
+    public void testAccentsAreFolded() {
+        assertEquals(List.of(protein), index.search("proteina", 0, 10).ids());
+        assertEquals(List.of(tea), index.search("CHA", 0, 10).ids());
+    }
+
+    @Test
+    public void testNameMatchesRankAboveDescriptionMatches() {
+        ProductSearchIndex.Result result = index.search("vitaminas", 0, 10);
+
+        assertEquals(2, result.total());
+        assertEquals(List.of(vitamin, protein), result.ids());
+    }
+
+    @Test
+    public void testAllTermsMustMatchAndLastTermMatchesByPrefix() {
+        assertEquals(List.of(protein), index.search("suplementos veg", 0, 10).ids());
+        assertTrue(index.search("suplementos cafe", 0, 10).ids().isEmpty());
+    }
+
+    @Test
+    public void testUpdateAndRemoveAreIncremental() {
+        index.put(tea, "Chá Verde", "Bebidas", null);
+        assertTrue(index.search("camomila", 0, 10).ids().isEmpty());
+        assertEquals(List.of(tea), index.search("verde", 0, 10).ids());
+
+        index.remove(tea);
+        assertEquals(0, index.search("cha", 0, 10).total());
+        assertEquals(2, index.documentCount());
+    }
+
+    @Test
+    public void testPagination() {
+        ProductSearchIndex.Result second = index.search("suplemento", 1, 1);
+
+        assertEquals(2, second.total());
+        assertEquals(1, second.ids().size());
+    }
+}
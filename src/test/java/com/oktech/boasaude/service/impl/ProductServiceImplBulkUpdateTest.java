@@ -0,0 +1,134 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import com.oktech.boasaude.dto.BulkProductUpdateDto;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.ProductBulkRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductServiceImplBulkUpdateTest {
+
+    private static final UUID SHOP = UUID.randomUUID();
+
+    @Mock
+    private ProductBulkRepository productBulkRepository;
+
+    @Mock
+    private ProductSnapshotCache productCache;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private ShopServiceImpl shopServiceImpl;
+
+    private final User owner = new User();
+
+    private FlashSaleInventory inventory;
+
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        owner.setId(UUID.randomUUID());
+        inventory = new FlashSaleInventory(productBulkRepository, productCache, new SimpleMeterRegistry(), 4,
+                "test-instance");
+        productService = new ProductServiceImpl(null, shopServiceImpl, null, null, productCache, catalogVersions,
+                productBulkRepository, null, null, inventory);
+        Mockito.lenient().when(shopServiceImpl.isShopOwner(SHOP, owner)).thenReturn(true);
+    }
+
+    private static BulkProductUpdateDto.Item price(UUID id, int price) {
+        return new BulkProductUpdateDto.Item(id, price, null, null);
+    }
+
+    private static BulkProductUpdateDto.Item delta(UUID id, int delta) {
+        return new BulkProductUpdateDto.Item(id, null, null, delta);
+    }
+
+    private void assertRejected(BulkProductUpdateDto dto) {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productService.bulkUpdateProducts(SHOP, dto, owner));
+        Mockito.verify(productBulkRepository, Mockito.never()).applyUpdates(Mockito.any(), Mockito.any(),
+                Mockito.any());
+    }
+
+    @Test
+    void productsOfOtherShopsAreLeftOutOfTheCount() {
+        UUID own = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        List<BulkProductUpdateDto.Item> items = List.of(price(own, 1500), price(foreign, 1500));
+        // The UPDATE filters on the shop, so only the shop's own product matches
+        Mockito.when(productBulkRepository.applyUpdates(Mockito.eq(SHOP), Mockito.eq(items), Mockito.any()))
+                .thenReturn(1);
+
+        int updated = productService.bulkUpdateProducts(SHOP, new BulkProductUpdateDto(items), owner);
+
+        Assertions.assertEquals(1, updated);
+        Mockito.verify(productCache).invalidate(own);
+        Mockito.verify(catalogVersions).productChanged(SHOP);
+    }
+
+    @Test
+    void deltaBelowZeroIsLeftToTheUpdateFilter() {
+        UUID id = UUID.randomUUID();
+        List<BulkProductUpdateDto.Item> items = List.of(delta(id, -50));
+        // The row holds less than 50 units, so the UPDATE skips it instead of going negative
+        Mockito.when(productBulkRepository.applyUpdates(Mockito.eq(SHOP), Mockito.eq(items), Mockito.any()))
+                .thenReturn(0);
+
+        Assertions.assertEquals(0, productService.bulkUpdateProducts(SHOP, new BulkProductUpdateDto(items), owner));
+    }
+
+    @Test
+    void rejectsDuplicatedProducts() {
+        UUID id = UUID.randomUUID();
+
+        assertRejected(new BulkProductUpdateDto(List.of(price(id, 1500), delta(id, 2))));
+    }
+
+    @Test
+    void rejectsStockTogetherWithStockDelta() {
+        assertRejected(new BulkProductUpdateDto(List.of(
+                new BulkProductUpdateDto.Item(UUID.randomUUID(), null, 10, 2))));
+    }
+
+    @Test
+    void rejectsEmptyRequestsAndItems() {
+        assertRejected(new BulkProductUpdateDto(List.of()));
+        assertRejected(new BulkProductUpdateDto(List.of(
+                new BulkProductUpdateDto.Item(UUID.randomUUID(), null, null, null))));
+    }
+
+    @Test
+    void rejectsStockChangesDuringAFlashSale() {
+        UUID id = UUID.randomUUID();
+        inventory.start(id, 10);
+
+        assertRejected(new BulkProductUpdateDto(List.of(delta(id, 5))));
+    }
+
+    @Test
+    void rejectsUsersThatDoNotOwnTheShop() {
+        User stranger = new User();
+        stranger.setId(UUID.randomUUID());
+
+        Assertions.assertThrows(AccessDeniedException.class, () -> productService.bulkUpdateProducts(SHOP,
+                new BulkProductUpdateDto(List.of(price(UUID.randomUUID(), 1500))), stranger));
+        Mockito.verify(productBulkRepository, Mockito.never()).applyUpdates(Mockito.any(), Mockito.any(),
+                Mockito.any());
+    }
+}
@@ -0,0 +1,112 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.repository.ProductBulkRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductServiceImplReserveStockTest {
+
+    private static final UUID PRODUCT = UUID.randomUUID();
+
+    @Mock
+    private ProductBulkRepository productBulkRepository;
+
+    @Mock
+    private ProductSnapshotCache productCache;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    private FlashSaleInventory inventory;
+
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new FlashSaleInventory(productBulkRepository, productCache, new SimpleMeterRegistry(), 4,
+                "test-instance");
+        productService = new ProductServiceImpl(null, null, null, null, productCache, catalogVersions,
+                productBulkRepository, null, null, inventory);
+    }
+
+    private static OrderItem item(int quantity) {
+        Shop shop = new Shop();
+        shop.setId(UUID.randomUUID());
+        Product product = new Product();
+        product.setId(PRODUCT);
+        product.setPrice(1000);
+        product.setShop(shop);
+        return new OrderItem(new Order(), product, quantity);
+    }
+
+    @Test
+    void saleStartedWhileWaitingForTheRowTakesTheReservation() {
+        // The sale marks the row and copies the stock (10) while the checkout's UPDATE waits on the
+        // row lock; the UPDATE then re-checks the flag and refuses the row
+        Mockito.when(productBulkRepository.reserveStock(Mockito.eq(Map.of(PRODUCT, 2)), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    inventory.start(PRODUCT, 10);
+                    return List.of(PRODUCT);
+                });
+
+        productService.reserveStock(List.of(item(2)));
+
+        Mockito.verify(productBulkRepository, Mockito.never()).releaseStock(Mockito.any(), Mockito.any());
+        Mockito.verify(productBulkRepository, Mockito.never()).findInFlashSale(Mockito.any());
+        Assertions.assertEquals(8, inventory.start(PRODUCT, 0));
+        Mockito.verify(productCache, Mockito.never()).invalidate(PRODUCT);
+    }
+
+    @Test
+    void productOutsideASaleStaysOnTheRow() {
+        Mockito.when(productBulkRepository.reserveStock(Mockito.eq(Map.of(PRODUCT, 2)), Mockito.any()))
+                .thenReturn(List.of());
+
+        productService.reserveStock(List.of(item(2)));
+
+        Mockito.verify(productBulkRepository, Mockito.never()).releaseStock(Mockito.any(), Mockito.any());
+        Mockito.verify(productCache).invalidate(PRODUCT);
+    }
+
+    @Test
+    void productInASaleOnAnotherInstanceIsRefused() {
+        Mockito.when(productBulkRepository.reserveStock(Mockito.eq(Map.of(PRODUCT, 2)), Mockito.any()))
+                .thenReturn(List.of(PRODUCT));
+        Mockito.when(productBulkRepository.findInFlashSale(List.of(PRODUCT))).thenReturn(Set.of(PRODUCT));
+
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productService.reserveStock(List.of(item(2))));
+
+        Assertions.assertTrue(error.getMessage().startsWith("Product is in flash sale on another instance"));
+        Mockito.verify(productCache, Mockito.never()).invalidate(PRODUCT);
+    }
+
+    @Test
+    void productWithoutStockIsRefused() {
+        Mockito.when(productBulkRepository.reserveStock(Mockito.eq(Map.of(PRODUCT, 2)), Mockito.any()))
+                .thenReturn(List.of(PRODUCT));
+
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productService.reserveStock(List.of(item(2))));
+
+        Assertions.assertTrue(error.getMessage().startsWith("Insufficient stock for product"));
+    }
+}
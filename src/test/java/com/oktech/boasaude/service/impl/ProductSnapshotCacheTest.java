@@ -0,0 +1,105 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.repository.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSnapshotCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSnapshotCache cache;
+
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new ProductSnapshotCache(productRepository, new SimpleMeterRegistry(), 100, 60);
+
+        Shop shop = new Shop();
+        shop.setId(UUID.randomUUID());
+        product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setShop(shop);
+        product.setName("Vitamina C");
+        product.setPrice(1500);
+        product.setStock(10);
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(productRepository.findById(product.getId())).thenAnswer(invocation -> {
+            loading.await();
+            return Optional.of(product);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProductSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(product.getId())));
+            }
+            Thread.sleep(100);
+            loading.countDown();
+
+            for (Future<ProductSnapshot> result : results) {
+                assertEquals("Vitamina C", result.get().name());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(productRepository, times(1)).findById(product.getId());
+    }
+
+    @Test
+    public void testInvalidateReloadsAndCopiesAreIndependent() {
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+        Product first = cache.get(product.getId()).toProduct();
+        first.setName("changed");
+        cache.invalidate(product.getId());
+        Product second = cache.get(product.getId()).toProduct();
+
+        assertNotSame(first, second);
+        assertEquals("Vitamina C", second.getName());
+        assertEquals(product.getShop().getId(), second.getShop().getId());
+        verify(productRepository, times(2)).findById(product.getId());
+    }
+
+    @Test
+    public void testMissingProductIsNotCached() {
+        UUID id = UUID.randomUUID();
+        when(productRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertNull(cache.get(id));
+        assertNull(cache.get(id));
+        verify(productRepository, times(2)).findById(id);
+    }
+}
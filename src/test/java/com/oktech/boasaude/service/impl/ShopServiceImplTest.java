@@ -0,0 +1,76 @@
+package com.oktech.boasaude.service.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.repository.ShopRepository;
+import com.oktech.boasaude.service.ProductSearchService;
+
+@ExtendWith(MockitoExtension.class)
+public class ShopServiceImplTest {
+
+    private static final UUID SHOP = UUID.randomUUID();
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private CategoryFacets categoryFacets;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSnapshotCache productCache;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    private ShopServiceImpl shopService;
+
+    @BeforeEach
+    void setUp() {
+        shopService = new ShopServiceImpl(shopRepository, null, null, catalogVersions, categoryFacets,
+                productRepository, productCache, productSearchService);
+    }
+
+    @Test
+    void deletedShopProductsLeaveTheCacheAndTheSearchIndex() {
+        User owner = new User();
+        owner.setId(UUID.randomUUID());
+        Shop shop = new Shop();
+        shop.setId(SHOP);
+        shop.setOwner(owner);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Mockito.when(shopRepository.findById(SHOP)).thenReturn(Optional.of(shop));
+        Mockito.when(productRepository.findIdsByShopId(SHOP)).thenReturn(List.of(first, second));
+
+        shopService.deleteShop(SHOP, owner);
+
+        // The ids must be read while the products still exist
+        InOrder order = Mockito.inOrder(productRepository, shopRepository);
+        order.verify(productRepository).findIdsByShopId(SHOP);
+        order.verify(shopRepository).delete(shop);
+        Mockito.verify(productCache).invalidate(first);
+        Mockito.verify(productCache).invalidate(second);
+        Mockito.verify(productSearchService).remove(first);
+        Mockito.verify(productSearchService).remove(second);
+        Mockito.verify(catalogVersions).shopDeleted(SHOP);
+    }
+}
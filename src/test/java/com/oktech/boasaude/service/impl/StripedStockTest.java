@@ -0,0 +1,82 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class StripedStockTest {
+
+    @Test
+    void spreadsUnitsAcrossStripes() {
+        StripedStock stock = new StripedStock(10, 4);
+
+        assertEquals(10, stock.available());
+        assertEquals(4, stock.stripeCount());
+    }
+
+    @Test
+    void rebalancesWhenTheChosenStripeRunsDry() {
+        // 5 units over 4 stripes: no single stripe holds 5
+        StripedStock stock = new StripedStock(5, 4);
+
+        assertTrue(stock.tryReserve(5));
+        assertEquals(0, stock.available());
+        assertFalse(stock.tryReserve(1));
+    }
+
+    @Test
+    void releasedUnitsCanBeReservedAgain() {
+        StripedStock stock = new StripedStock(3, 8);
+
+        assertTrue(stock.tryReserve(3));
+        stock.release(2);
+
+        assertTrue(stock.tryReserve(2));
+        assertFalse(stock.tryReserve(1));
+    }
+
+    @Test
+    void neverOversellsUnderContention() throws Exception {
+        int units = 10_000;
+        int threads = 32;
+        StripedStock stock = new StripedStock(units, 16);
+        AtomicLong sold = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int misses = 0;
+                while (misses < 100) {
+                    int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                    if (stock.tryReserve(quantity)) {
+                        sold.addAndGet(quantity);
+                    } else {
+                        misses++;
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(units, sold.get() + stock.available());
+        assertTrue(stock.available() < 3, "units left behind while buyers were still trying");
+    }
+}
@@ -0,0 +1,87 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares JWT verification throughput (ops/s):
+ * <ul>
+ * <li>legacy: algorithm and verifier rebuilt on every call;</li>
+ * <li>cold: reused verifier, full HMAC check and parse on every call;</li>
+ * <li>warm: repeated token served from the verified-token cache.</li>
+ * </ul>
+ * Run with {@code mvn test-compile} and then the {@link #main(String[])}
+ * method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceImplBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    private TokenServiceImpl tokenService;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenServiceImpl(null, null, null, new SimpleMeterRegistry(), SECRET, 10_000);
+        token = JWT.create()
+                .withIssuer("oktech")
+                .withSubject("benchmark@oktech.com")
+                .withClaim("userId", UUID.randomUUID().toString())
+                .withClaim("role", "[ROLE_USER]")
+                .withExpiresAt(Instant.now().plusSeconds(3600))
+                .sign(Algorithm.HMAC256(SECRET));
+        tokenService.getDecodedToken(token);
+    }
+
+    @Benchmark
+    public DecodedJWT legacy() {
+        return JWT.require(Algorithm.HMAC256(SECRET))
+                .withIssuer("oktech")
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT cold() {
+        return tokenService.verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT warm() {
+        return tokenService.getDecodedToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenServiceImplBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.oktech.boasaude.config.security.TokenRevocationList;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TokenServiceImplTest {
+
+    private static final String SECRET = "test-secret";
+
+    private TokenServiceImpl tokenService;
+
+    @BeforeEach
+    public void setUp() {
+        this.tokenService = new TokenServiceImpl(null, null, null, new SimpleMeterRegistry(), SECRET, 100);
+    }
+
+    private String sign(String secret, UUID userId) {
+        return JWT.create()
+                .withIssuer("oktech")
+                .withSubject("test@test.com")
+                .withClaim("userId", userId.toString())
+                .withExpiresAt(Instant.now().plusSeconds(60))
+                .sign(Algorithm.HMAC256(secret));
+    }
+
+    @Test
+    public void testRepeatedTokenIsServedFromCache() {
+        UUID userId = UUID.randomUUID();
+        String token = sign(SECRET, userId);
+
+        DecodedJWT first = tokenService.getDecodedToken(token);
+        DecodedJWT second = tokenService.getDecodedToken(token);
+
+        assertSame(first, second);
+        assertEquals(userId, tokenService.getUserIdFromToken(token));
+    }
+
+    @Test
+    public void testReloadSecretRejectsTokensSignedWithOldSecret() {
+        String token = sign(SECRET, UUID.randomUUID());
+        tokenService.getDecodedToken(token);
+
+        tokenService.reloadSecret("another-secret");
+
+        assertNull(tokenService.getDecodedToken(token));
+    }
+
+    @Test
+    public void testRefreshTokenCanOnlyBeUsedOnce() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setEmail("test@test.com");
+        user.setRole(UserRole.USER);
+        user.setActive(true);
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.getUserById(userId)).thenReturn(user);
+        TokenServiceImpl service = new TokenServiceImpl(userService, null, new TokenRevocationList(1000, 0.01, 3600),
+                new SimpleMeterRegistry(), SECRET, 100);
+        String refreshToken = JWT.create()
+                .withIssuer("oktech")
+                .withSubject("test@test.com")
+                .withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(Instant.now())
+                .withClaim("tokenType", "refresh")
+                .withClaim("userId", userId.toString())
+                .withExpiresAt(Instant.now().plusSeconds(60))
+                .sign(Algorithm.HMAC256(SECRET));
+
+        assertNotNull(service.refreshTokens(refreshToken).refreshToken());
+        // A replay, or the slower of two concurrent refreshes, gets no new pair
+        assertThrows(IllegalArgumentException.class, () -> service.refreshTokens(refreshToken));
+    }
+}
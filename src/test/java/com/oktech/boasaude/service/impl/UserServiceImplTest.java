@@ -4,6 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Optional;
+import java.util.UUID;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,8 +16,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.oktech.boasaude.config.security.TokenRevocationList;
+import com.oktech.boasaude.config.security.UserPrincipalCache;
 import com.oktech.boasaude.dto.CreateUserDto;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
 import com.oktech.boasaude.repository.UserRepository;
 
 @ActiveProfiles("test")
@@ -27,6 +33,12 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    @Mock
+    private TokenRevocationList revocationList;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -98,4 +110,47 @@ public class UserServiceImplTest {
         Mockito.verify(userRepository, Mockito.never()).save(Mockito.any(User.class));
     }
 
+    @Test
+    void testUpdateUserRoleInvalidatesPrincipalCache() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setRole(UserRole.USER);
+
+        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.updateUserRole(userId, UserRole.PRODUCTOR);
+
+        assertEquals(UserRole.PRODUCTOR, user.getRole());
+        Mockito.verify(userRepository).save(user);
+        Mockito.verify(principalCache).invalidate(userId);
+    }
+
+    @Test
+    void testUpdateUserRoleRevokesTokensOnDemotion() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setRole(UserRole.ADMIN);
+
+        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.updateUserRole(userId, UserRole.PRODUCTOR);
+
+        Mockito.verify(revocationList).revokeUser(userId);
+    }
+
+    @Test
+    void testUpdateUserRoleKeepsTokensOnPromotion() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setRole(UserRole.USER);
+
+        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.updateUserRole(userId, UserRole.ADMIN);
+
+        Mockito.verify(revocationList, Mockito.never()).revokeUser(userId);
+    }
 }